@@ -21,15 +21,26 @@ package org.dasein.cloud.openstack.nova.os;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.Reader;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.security.cert.CertificateException;
-import java.security.cert.X509Certificate;
+import java.nio.charset.Charset;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -39,48 +50,44 @@ import javax.annotation.Nullable;
 
 import org.apache.http.Header;
 import org.apache.http.HttpEntity;
-import org.apache.http.HttpHost;
+import org.apache.http.HttpEntityEnclosingRequest;
 import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
-import org.apache.http.HttpVersion;
 import org.apache.http.client.HttpClient;
 import org.apache.http.client.methods.HttpDelete;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpHead;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.client.methods.HttpPut;
-import org.apache.http.conn.params.ConnRoutePNames;
-import org.apache.http.conn.scheme.Scheme;
-import org.apache.http.conn.ssl.SSLSocketFactory;
-import org.apache.http.conn.ssl.TrustStrategy;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.conn.ConnectionReleaseTrigger;
+import org.apache.http.entity.BufferedHttpEntity;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.InputStreamEntity;
 import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.client.DefaultHttpClient;
-import org.apache.http.params.BasicHttpParams;
+import org.apache.http.params.HttpConnectionParams;
 import org.apache.http.params.HttpParams;
-import org.apache.http.params.HttpProtocolParams;
-import org.apache.http.protocol.HTTP;
 import org.apache.http.util.EntityUtils;
 import org.apache.log4j.Logger;
 import org.dasein.cloud.*;
 import org.dasein.cloud.openstack.nova.os.ext.hp.db.HPRDBMS;
 import org.dasein.cloud.util.APITrace;
-import org.dasein.cloud.util.Cache;
-import org.dasein.cloud.util.CacheLevel;
-import org.dasein.util.CalendarWrapper;
-import org.dasein.util.uom.time.Day;
-import org.dasein.util.uom.time.TimePeriod;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
+import org.json.JSONTokener;
 
 public abstract class AbstractMethod {
     protected NovaOpenStack provider;
 
     public AbstractMethod(NovaOpenStack provider) { this.provider = provider; }
 
-    public synchronized @Nullable AuthenticationContext authenticate() throws CloudException, InternalException {
+    /**
+     * Authenticates against the endpoint of the provider context. Callers should go through
+     * {@link NovaOpenStack#getAuthenticationContext()}, which caches the result and ensures that only one
+     * authentication is in progress per account and region.
+     */
+    public @Nullable AuthenticationContext authenticate() throws CloudException, InternalException {
         Logger std = NovaOpenStack.getLogger(NovaOpenStack.class, "std");
         
         if( std.isTraceEnabled() ) {
@@ -97,34 +104,47 @@ public abstract class AbstractMethod {
             if( endpoint == null ) {
                 throw new InternalException("No authentication endpoint");
             }
-            AuthenticationContext auth;
-            
+            String key = endpoint;
+            AuthProtocol protocol = authProtocols.get(key);
+            AuthenticationContext auth = null;
+
+            if( protocol != null ) {
+                if( endpoint.startsWith("ks:") || endpoint.startsWith("st:") ) {
+                    endpoint = endpoint.substring(3);
+                }
+                auth = authenticate(protocol, endpoint);
+                if( auth != null ) {
+                    return auth;
+                }
+                // forget the protocol before falling back so that concurrent callers do not keep trying it either
+                authProtocols.remove(key, protocol);
+                endpoint = key;
+            }
+            AuthProtocol[] candidates;
+
             if( endpoint.startsWith("ks:") ) {
                 endpoint = endpoint.substring(3);
-                auth = authenticateKeystone(endpoint);
+                candidates = new AuthProtocol[] { AuthProtocol.KEYSTONE };
             }
             else if( endpoint.startsWith("st:") ) {
                 endpoint = endpoint.substring(3);
-                auth = authenticateStandard(endpoint);
+                candidates = new AuthProtocol[] { AuthProtocol.STANDARD };
+            }
+            else if( endpoint.endsWith("1.0") || endpoint.endsWith("1.0/") || endpoint.endsWith("1.1") || endpoint.endsWith("1.1/")) {
+                candidates = new AuthProtocol[] { AuthProtocol.STANDARD, AuthProtocol.SWIFT, AuthProtocol.KEYSTONE };
             }
             else {
-                if( endpoint.endsWith("1.0") || endpoint.endsWith("1.0/") || endpoint.endsWith("1.1") || endpoint.endsWith("1.1/")) {
-                    auth = authenticateStandard(endpoint);
-                    if (auth == null) {
-                    	auth = authenticateSwift(endpoint);
-                    }
-                    if( auth == null ) {
-                        auth = authenticateKeystone(endpoint);
-                    }
+                candidates = new AuthProtocol[] { AuthProtocol.KEYSTONE, AuthProtocol.STANDARD, AuthProtocol.SWIFT };
+            }
+            for( AuthProtocol candidate : candidates ) {
+                // the remembered protocol has just failed, so there is no point in trying it again
+                if( candidate == protocol ) {
+                    continue;
                 }
-                else {
-                    auth = authenticateKeystone(endpoint);
-                    if( auth == null ) {
-                        auth = authenticateStandard(endpoint);
-                    }
-                    if (auth == null) {
-                    	auth = authenticateSwift(endpoint);
-                    }
+                auth = authenticate(candidate, endpoint);
+                if( auth != null ) {
+                    authProtocols.put(key, candidate);
+                    break;
                 }
             }
             return auth;
@@ -136,6 +156,22 @@ public abstract class AbstractMethod {
         }
     }
     
+    private enum AuthProtocol { KEYSTONE, STANDARD, SWIFT }
+
+    /**
+     * The protocol that last authenticated successfully against each configured endpoint, so that subsequent
+     * authentications skip the protocols the endpoint does not speak.
+     */
+    static private final ConcurrentHashMap<String,AuthProtocol> authProtocols = new ConcurrentHashMap<String, AuthProtocol>();
+
+    private @Nullable AuthenticationContext authenticate(@Nonnull AuthProtocol protocol, @Nonnull String endpoint) throws CloudException, InternalException {
+        switch( protocol ) {
+            case KEYSTONE: return authenticateKeystone(endpoint);
+            case STANDARD: return authenticateStandard(endpoint);
+            default: return authenticateSwift(endpoint);
+        }
+    }
+
     private @Nullable AuthenticationContext authenticateKeystone(@Nonnull String endpoint) throws CloudException, InternalException {
         Logger std = NovaOpenStack.getLogger(NovaOpenStack.class, "std");
         Logger wire = NovaOpenStack.getLogger(NovaOpenStack.class, "wire");
@@ -148,7 +184,7 @@ public abstract class AbstractMethod {
             wire.debug("");
         }
 
-        HttpClient client = null;
+        HttpPost post = null;
 
         try {
             String accessPublic = null;
@@ -222,8 +258,8 @@ public abstract class AbstractMethod {
             
             jsonAuth.put("auth", json);
 
-            client = getClient();
-            HttpPost post = new HttpPost(endpoint + "/tokens");
+            HttpClient client = getClient();
+            post = new HttpPost(endpoint + "/tokens");
             
             post.addHeader("Content-Type", "application/json");
             if( wire.isDebugEnabled() ) {
@@ -330,6 +366,7 @@ public abstract class AbstractMethod {
                     String id, tenantId;
                     JSONArray catalog;
                     JSONObject token;
+                    long expiration = 0L;
 
                     try {
                         JSONObject rj = new JSONObject(data);
@@ -346,6 +383,9 @@ public abstract class AbstractMethod {
                                 tenantId = t.getString("id");
                             }
                         }
+                        if( token.has("expires") && !token.isNull("expires") ) {
+                            expiration = toLocalExpiration(token.getString("expires"), (token.has("issued_at") && !token.isNull("issued_at")) ? token.getString("issued_at") : null);
+                        }
                     }
                     catch( JSONException e ) {
                         std.error("authenticateKeystone(): Invalid response from server: " + e.getMessage());
@@ -474,15 +514,15 @@ public abstract class AbstractMethod {
                             endpoints.put("region-a.geo-1", "https://region-a.geo-1.dbaas-mysql.hpcloudsvc.com:8779/v1.0/66565797737008");
                             services.put(HPRDBMS.SERVICE, endpoints);
                         }
-                        return new AuthenticationContext(myRegionId, id, tenantId, services, null);
+                        return new AuthenticationContext(myRegionId, id, tenantId, services, null, expiration);
                     }
                 }
             }
             throw new InternalException("No authentication tokens were provided");
         }
         finally {
-            if (client != null) {
-                client.getConnectionManager().shutdown();
+            if( post != null ) {
+                post.releaseConnection();
             }
             if( std.isTraceEnabled() ) {
                 std.trace("exit - " + AbstractMethod.class.getName() + ".authenticateKeystone()");
@@ -537,12 +577,12 @@ public abstract class AbstractMethod {
                     wire.debug("");
                 }
                 
-                HttpClient client = null;
+                HttpGet get = null;
 
                 try {
                     ProviderContext ctx = provider.getContext();
-                    client = getClient();
-                    HttpGet get = new HttpGet(endpoint);
+                    HttpClient client = getClient();
+                    get = new HttpGet(endpoint);
 
                     get.addHeader("Content-Type", "application/json");
                     get.addHeader("X-Auth-User", accessPublic);
@@ -672,8 +712,8 @@ public abstract class AbstractMethod {
                     }
                 }
                finally {
-                   if (client != null) {
-                       client.getConnectionManager().shutdown();
+                   if( get != null ) {
+                       get.releaseConnection();
                    }
                    if( wire.isDebugEnabled() ) {
                        wire.debug("");
@@ -728,10 +768,10 @@ public abstract class AbstractMethod {
             wire.debug("");
         }
         
-        HttpClient client = null;
+        HttpGet get = null;
         try {
-            client = getClient();
-            HttpGet get = new HttpGet(endpoint);
+            HttpClient client = getClient();
+            get = new HttpGet(endpoint);
 
             ProviderContext ctx = provider.getContext();
             String account;
@@ -855,8 +895,8 @@ public abstract class AbstractMethod {
             }
         }
         finally {
-            if (client != null) {
-                client.getConnectionManager().shutdown();
+            if( get != null ) {
+                get.releaseConnection();
             }
             if( std.isTraceEnabled() ) {
                 std.trace("exit - " + AbstractMethod.class.getName() + ".authenticate()");
@@ -883,10 +923,13 @@ public abstract class AbstractMethod {
             delete(context.getAuthToken(), endpoint, resourceUri);
         }
         catch (NovaException ex) {
-            if (ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED) {
-                Cache<AuthenticationContext> cache = Cache.getInstance(provider, "authenticationContext", AuthenticationContext.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Day>(1, TimePeriod.DAY));
-                cache.clear();
-                deleteResource(service, resource, resourceId, suffix);
+            if( ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED && beginAuthenticationRetry(context) ) {
+                try {
+                    deleteResource(service, resource, resourceId, suffix);
+                }
+                finally {
+                    endAuthenticationRetry();
+                }
             }
             else {
                 throw ex;
@@ -905,10 +948,10 @@ public abstract class AbstractMethod {
             wire.debug("--------------------------------------------------------> " + endpoint + resource);
             wire.debug("");
         }
-        HttpClient client = null;
+        HttpDelete delete = null;
         try {
-            client = getClient();
-            HttpDelete delete = new HttpDelete(endpoint + resource);
+            HttpClient client = getClient();
+            delete = new HttpDelete(endpoint + resource);
             
             delete.addHeader("Content-Type", "application/json");
             delete.addHeader("X-Auth-Token", authToken);
@@ -923,7 +966,7 @@ public abstract class AbstractMethod {
 
             try {
                 APITrace.trace(provider, "DELETE " + toAPIResource(resource));
-                response = client.execute(delete);
+                response = execute(client, delete, endpoint);
                 if( wire.isDebugEnabled() ) {
                     wire.debug(response.getStatusLine().toString());
                     for( Header header : response.getAllHeaders() ) {
@@ -975,8 +1018,8 @@ public abstract class AbstractMethod {
             }
         }
         finally {
-            if (client != null) {
-                client.getConnectionManager().shutdown();
+            if( delete != null ) {
+                delete.releaseConnection();
             }
             if( std.isTraceEnabled() ) {
                 std.trace("exit - " + AbstractMethod.class.getName() + ".delete()");
@@ -1019,10 +1062,13 @@ public abstract class AbstractMethod {
             return items;
         }
         catch (NovaException ex) {
-            if (ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED) {
-                Cache<AuthenticationContext> cache = Cache.getInstance(provider, "authenticationContext", AuthenticationContext.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Day>(1, TimePeriod.DAY));
-                cache.clear();
-                return getItemList(service, resource, suffix);
+            if( ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED && beginAuthenticationRetry(context) ) {
+                try {
+                    return getItemList(service, resource, suffix);
+                }
+                finally {
+                    endAuthenticationRetry();
+                }
             }
             else {
                 throw ex;
@@ -1063,18 +1109,262 @@ public abstract class AbstractMethod {
             }
         }
         catch (NovaException ex) {
-            if (ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED) {
-                Cache<AuthenticationContext> cache = Cache.getInstance(provider, "authenticationContext", AuthenticationContext.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Day>(1, TimePeriod.DAY));
-                cache.clear();
-                return getResource(service, resource, resourceId, suffix);
+            if( ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED && beginAuthenticationRetry(context) ) {
+                try {
+                    return getResource(service, resource, resourceId, suffix);
+                }
+                finally {
+                    endAuthenticationRetry();
+                }
             }
             else {
                 throw ex;
             }
         }
     }
+
+    /**
+     * Asynchronous counterpart of {@link #getResource(String, String, String, boolean)}. The request, including
+     * any re-authentication, runs on the provider's executor; a failure surfaces from {@link Future#get()} as an
+     * {@link java.util.concurrent.ExecutionException} wrapping the same {@link CloudException} or
+     * {@link InternalException} the synchronous call would have thrown.
+     */
+    public @Nonnull Future<JSONObject> getResourceAsync(@Nonnull final String service, @Nonnull final String resource, @Nullable final String resourceId, final boolean suffix) {
+        return submit(new Callable<JSONObject>() {
+            @Override
+            public JSONObject call() throws CloudException, InternalException {
+                return getResource(service, resource, resourceId, suffix);
+            }
+        });
+    }
+
+    protected @Nonnull <T> Future<T> submit(@Nonnull Callable<T> task) {
+        return provider.getExecutor().submit(Deadline.wrap(task));
+    }
     
-    protected @Nullable String getString(@Nonnull String authToken, @Nonnull String endpoint, @Nonnull String resource) throws CloudException, InternalException {
+    /**
+     * Reads the body of a successful GET response.
+     */
+    protected interface ResponseReader<T> {
+        @Nullable T read(@Nonnull HttpEntity entity) throws IOException, CloudException, InternalException;
+    }
+
+    /**
+     * Receives the elements of a list response one at a time as they are parsed off the wire. The response holds a
+     * pooled connection until the last element has been handled, so a handler must not issue requests of its own or
+     * wait on other requests; anything that needs more data should be done after the list call returns.
+     */
+    public interface ElementHandler {
+        void handle(@Nonnull JSONObject element) throws CloudException, InternalException;
+    }
+
+    static private final ConcurrentHashMap<String,FutureTask<String>> getsInProgress = new ConcurrentHashMap<String, FutureTask<String>>();
+
+    /**
+     * Performs a GET and returns the response body. Identical GETs (same token, endpoint and resource) issued while
+     * one is already in flight do not go to the cloud; they wait for and share the body of the request in flight.
+     * Each caller parses the returned body itself, so no parsed state is shared between callers.
+     */
+    protected @Nullable String getString(@Nonnull final String authToken, @Nonnull final String endpoint, @Nonnull final String resource) throws CloudException, InternalException {
+        final Logger wire = NovaOpenStack.getLogger(NovaOpenStack.class, "wire");
+
+        return coalesce(getsInProgress, authToken + " " + endpoint + resource, new Callable<String>() {
+            @Override
+            public String call() throws CloudException, InternalException {
+                return get(authToken, endpoint, resource, true, new ResponseReader<String>() {
+                    @Override
+                    public String read(@Nonnull HttpEntity entity) throws IOException {
+                        String data = EntityUtils.toString(entity);
+
+                        if( wire.isDebugEnabled() ) {
+                            wire.debug(data);
+                            wire.debug("");
+                        }
+                        return data;
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Runs the call unless an identical one, registered under the same key, is already in progress, in which case
+     * its outcome is awaited and shared. Only idempotent requests may be coalesced this way. A caller waits no longer
+     * than its own deadline, and a caller whose shared call failed because the deadline of the caller that made it
+     * ran out makes the call again under its own deadline.
+     */
+    static <T> T coalesce(@Nonnull ConcurrentHashMap<String,FutureTask<T>> inProgress, @Nonnull String key, @Nonnull Callable<T> call) throws CloudException, InternalException {
+        SharedCall<T> task = new SharedCall<T>(call, Deadline.get());
+        FutureTask<T> existing = inProgress.putIfAbsent(key, task);
+
+        if( existing == null ) {
+            try {
+                task.run();
+            }
+            finally {
+                inProgress.remove(key, task);
+            }
+            return await(task);
+        }
+        try {
+            return await(existing);
+        }
+        catch( CloudException e ) {
+            if( !(existing instanceof SharedCall) || !((SharedCall<?>)existing).isOverdue() || Deadline.isExpired() ) {
+                throw e;
+            }
+            inProgress.remove(key, existing);
+            return coalesce(inProgress, key, call);
+        }
+    }
+
+    /**
+     * A call that other callers may share, along with the deadline of the caller that makes it.
+     */
+    static private class SharedCall<T> extends FutureTask<T> {
+        private final long deadline;
+
+        SharedCall(@Nonnull Callable<T> call, long deadline) {
+            super(call);
+            this.deadline = deadline;
+        }
+
+        /**
+         * @return true if the deadline of the caller making the call has passed
+         */
+        boolean isOverdue() {
+            return (deadline != Deadline.NONE && System.currentTimeMillis() >= deadline);
+        }
+    }
+
+    /**
+     * Waits for a task submitted to the provider executor and rethrows its failure as the synchronous call would
+     * have thrown it. The wait lasts no longer than the {@link Deadline} of the calling thread.
+     * @param future the pending task
+     * @return the result of the task
+     * @throws CloudException the task failed or the deadline passed before it completed
+     */
+    static public <T> T await(@Nonnull Future<T> future) throws CloudException, InternalException {
+        try {
+            long remaining = Deadline.remaining();
+
+            if( remaining == Long.MAX_VALUE ) {
+                return future.get();
+            }
+            return future.get(remaining, TimeUnit.MILLISECONDS);
+        }
+        catch( TimeoutException e ) {
+            throw Deadline.exceeded("the wait for a pending request");
+        }
+        catch( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new InternalException(e);
+        }
+        catch( ExecutionException e ) {
+            Throwable cause = e.getCause();
+
+            if( cause instanceof CloudException ) {
+                throw ( CloudException ) cause;
+            }
+            if( cause instanceof InternalException ) {
+                throw ( InternalException ) cause;
+            }
+            if( cause instanceof RuntimeException ) {
+                throw ( RuntimeException ) cause;
+            }
+            throw new InternalException(cause);
+        }
+    }
+
+    /**
+     * Performs a GET and streams the JSON object in the response body, handing each element of the named array to
+     * the handler as soon as it has been parsed. Only one element is held in memory at a time.
+     * @param element the name of the top-level array whose elements are to be streamed, such as "servers"
+     * @param handler the recipient of the array elements
+     * @return the other top-level members of the response (such as pagination links), or null if the resource does not exist
+     */
+    protected @Nullable JSONObject getList(@Nonnull String authToken, @Nonnull String endpoint, @Nonnull String resource, @Nonnull final String element, @Nonnull final ElementHandler handler) throws CloudException, InternalException {
+        final Logger wire = NovaOpenStack.getLogger(NovaOpenStack.class, "wire");
+
+        return get(authToken, endpoint, resource, false, new ResponseReader<JSONObject>() {
+            @Override
+            public JSONObject read(@Nonnull HttpEntity entity) throws IOException, CloudException, InternalException {
+                Charset charset = ContentType.getOrDefault(entity).getCharset();
+                Reader reader = new InputStreamReader(entity.getContent(), charset == null ? Charset.forName("UTF-8") : charset);
+
+                if( wire.isDebugEnabled() ) {
+                    wire.debug(" ---- STREAMED JSON ---- ");
+                    wire.debug("");
+                }
+                try {
+                    return streamList(new JSONTokener(reader), element, handler);
+                }
+                catch( JSONException e ) {
+                    throw new CommunicationException("Invalid response from server: " + e.getMessage(), e);
+                }
+                finally {
+                    reader.close();
+                }
+            }
+        });
+    }
+
+    /**
+     * Walks a top-level JSON object, passing each object in the named array to the handler instead of collecting it.
+     */
+    static @Nonnull JSONObject streamList(@Nonnull JSONTokener tokener, @Nonnull String element, @Nonnull ElementHandler handler) throws JSONException, CloudException, InternalException {
+        JSONObject rest = new JSONObject();
+
+        if( tokener.nextClean() != '{' ) {
+            throw tokener.syntaxError("A JSONObject text must begin with '{'");
+        }
+        if( tokener.nextClean() == '}' ) {
+            return rest;
+        }
+        tokener.back();
+        while( true ) {
+            String key = tokener.nextValue().toString();
+
+            if( tokener.nextClean() != ':' ) {
+                throw tokener.syntaxError("Expected a ':' after a key");
+            }
+            char c = tokener.nextClean();
+
+            if( c == '[' && key.equals(element) ) {
+                c = tokener.nextClean();
+                if( c != ']' ) {
+                    tokener.back();
+                    while( true ) {
+                        Object value = tokener.nextValue();
+
+                        if( value instanceof JSONObject ) {
+                            handler.handle(( JSONObject ) value);
+                        }
+                        c = tokener.nextClean();
+                        if( c == ']' ) {
+                            break;
+                        }
+                        if( c != ',' ) {
+                            throw tokener.syntaxError("Expected a ',' or ']'");
+                        }
+                    }
+                }
+            }
+            else {
+                tokener.back();
+                rest.put(key, tokener.nextValue());
+            }
+            c = tokener.nextClean();
+            if( c == '}' ) {
+                return rest;
+            }
+            if( c != ',' ) {
+                throw tokener.syntaxError("Expected a ',' or '}'");
+            }
+        }
+    }
+
+    private @Nullable <T> T get(@Nonnull String authToken, @Nonnull String endpoint, @Nonnull String resource, boolean cacheable, @Nonnull ResponseReader<T> reader) throws CloudException, InternalException {
         Logger std = NovaOpenStack.getLogger(NovaOpenStack.class, "std");
         Logger wire = NovaOpenStack.getLogger(NovaOpenStack.class, "wire");
         
@@ -1085,13 +1375,39 @@ public abstract class AbstractMethod {
             wire.debug("--------------------------------------------------------> " + endpoint + resource);
             wire.debug("");
         }
-        HttpClient client = null;
+        HttpGet get = null;
         try {
-            client = getClient();
-            HttpGet get = new HttpGet(resource == null ? endpoint : endpoint + resource);
+            HttpClient client = getClient();
+            get = new HttpGet(resource == null ? endpoint : endpoint + resource);
             
             get.addHeader("Content-Type", "application/json");
             get.addHeader("X-Auth-Token", authToken);
+            if( provider.isCompressionEnabled() ) {
+                get.addHeader("Accept-Encoding", "gzip,deflate");
+            }
+            ResponseCache cache = null;
+            ResponseCache.Entry cached = null;
+            String cacheKey = null;
+            long ttl = 0L;
+
+            if( cacheable && provider.isResponseCacheEnabled() ) {
+                cache = provider.getResponseCache();
+                cacheKey = authToken + " " + get.getURI();
+                cached = cache.get(endpoint, cacheKey);
+                ttl = provider.getResponseCacheTtl(endpoint, resource);
+                if( cached != null ) {
+                    if( cached.isFresh() ) {
+                        cache.hit();
+                        return readCached(reader, cached);
+                    }
+                    if( cached.getETag() != null ) {
+                        get.addHeader("If-None-Match", cached.getETag());
+                    }
+                    if( cached.getLastModified() != null ) {
+                        get.addHeader("If-Modified-Since", cached.getLastModified());
+                    }
+                }
+            }
 
             if( wire.isDebugEnabled() ) {
                 wire.debug(get.getRequestLine().toString());
@@ -1104,7 +1420,8 @@ public abstract class AbstractMethod {
 
             try {
                 APITrace.trace(provider, "GET " + toAPIResource(resource));
-                response = client.execute(get);
+                response = executeHedged(client, get, endpoint);
+                TransferStatistics.decode(response, endpoint);
                 if( wire.isDebugEnabled() ) {
                     wire.debug(response.getStatusLine().toString());
                     for( Header header : response.getAllHeaders() ) {
@@ -1121,7 +1438,14 @@ public abstract class AbstractMethod {
 
             std.debug("HTTP STATUS: " + code);
 
+            if( code == HttpStatus.SC_NOT_MODIFIED && cached != null ) {
+                EntityUtils.consumeQuietly(response.getEntity());
+                cached.refresh(System.currentTimeMillis() + ttl);
+                cache.revalidated();
+                return readCached(reader, cached);
+            }
             if( code == HttpStatus.SC_NOT_FOUND ) {
+                EntityUtils.consumeQuietly(response.getEntity());
                 return null;
             }
             if( code == HttpStatus.SC_BAD_REQUEST ) {
@@ -1200,29 +1524,39 @@ public abstract class AbstractMethod {
                 throw new NovaException(items);
             }
             else {
-                String data = null;
-
                 try {
                     HttpEntity entity = response.getEntity();
 
-                    if( entity != null ) {
-                        data = EntityUtils.toString(entity);
-                        if( wire.isDebugEnabled() ) {
-                            wire.debug(data);
-                            wire.debug("");
+                    if( entity == null ) {
+                        return null;
+                    }
+                    if( cache != null ) {
+                        Header eTag = response.getFirstHeader("ETag");
+                        Header lastModified = response.getFirstHeader("Last-Modified");
+
+                        cache.miss();
+                        if( code == HttpStatus.SC_OK && (eTag != null || lastModified != null || ttl > 0L) ) {
+                            Header contentType = entity.getContentType();
+                            ResponseCache.Entry fresh = new ResponseCache.Entry(EntityUtils.toByteArray(entity), contentType == null ? null : contentType.getValue(), eTag == null ? null : eTag.getValue(), lastModified == null ? null : lastModified.getValue(), System.currentTimeMillis() + ttl);
+
+                            cache.put(endpoint, cacheKey, fresh);
+                            entity = fresh.toEntity();
+                        }
+                        else if( cached != null ) {
+                            cache.remove(endpoint, cacheKey);
                         }
                     }
+                    return reader.read(entity);
                 }
                 catch( IOException e ) {
                     std.error("Failed to read response error due to a cloud I/O error: " + e.getMessage());
                     throw new CommunicationException("Failed to read response error due to a cloud I/O error: " + e.getMessage(), e);
                 }
-                return data;
             }
         }
         finally {
-            if (client != null) {
-                client.getConnectionManager().shutdown();
+            if( get != null ) {
+                get.releaseConnection();
             }
             if( std.isTraceEnabled() ) {
                 std.trace("exit - " + AbstractMethod.class.getName() + ".getString()");
@@ -1233,8 +1567,21 @@ public abstract class AbstractMethod {
             }               
         }
     }
+
+    private @Nullable <T> T readCached(@Nonnull ResponseReader<T> reader, @Nonnull ResponseCache.Entry cached) throws CloudException, InternalException {
+        try {
+            return reader.read(cached.toEntity());
+        }
+        catch( IOException e ) {
+            throw new CommunicationException("Failed to read cached response: " + e.getMessage(), e);
+        }
+    }
     
-    protected @Nullable InputStream getStream(@Nonnull String authToken, @Nonnull String endpoint, @Nonnull String resource) throws CloudException, InternalException {
+    /**
+     * Issues a GET and hands the response body back as a stream without buffering it. The caller owns the
+     * returned stream and must close it to give the connection back to the pool.
+     */
+    protected @Nullable StreamingResponse getStream(@Nonnull String authToken, @Nonnull String endpoint, @Nonnull String resource) throws CloudException, InternalException {
         Logger std = NovaOpenStack.getLogger(NovaOpenStack.class, "std");
         Logger wire = NovaOpenStack.getLogger(NovaOpenStack.class, "wire");
         
@@ -1245,9 +1592,12 @@ public abstract class AbstractMethod {
             wire.debug("--------------------------------------------------------> " + endpoint + resource);
             wire.debug("");
         }
+        HttpGet get = null;
+        StreamingResponse stream = null;
+
         try {
             HttpClient client = getClient();
-            HttpGet get = new HttpGet(endpoint + resource);
+            get = new HttpGet(endpoint + resource);
             
             get.addHeader("Content-Type", "application/json");
             get.addHeader("X-Auth-Token", authToken);
@@ -1263,7 +1613,7 @@ public abstract class AbstractMethod {
 
             try {
                 APITrace.trace(provider, "GET " + toAPIResource(resource));
-                response = client.execute(get);
+                response = execute(client, get, endpoint);
                 if( wire.isDebugEnabled() ) {
                     wire.debug(response.getStatusLine().toString());
                     for( Header header : response.getAllHeaders() ) {
@@ -1280,6 +1630,7 @@ public abstract class AbstractMethod {
 
             std.debug("HTTP STATUS: " + code);
             if( code == HttpStatus.SC_NOT_FOUND ) {
+                EntityUtils.consumeQuietly(response.getEntity());
                 return null;
             }
             if( code != HttpStatus.SC_OK && code != HttpStatus.SC_NON_AUTHORITATIVE_INFORMATION ) {
@@ -1310,13 +1661,11 @@ public abstract class AbstractMethod {
                 throw new NovaException(items);
             }
             else {
-                InputStream input = null;
-                
                 try {
                     HttpEntity entity = response.getEntity();
 
                     if( entity != null ) {
-                        input = entity.getContent();
+                        stream = new StreamingResponse(get, response, entity);
                         if( wire.isDebugEnabled() ) {
                             wire.debug(" ---- BINARY DATA ---- ");
                             wire.debug("");
@@ -1334,10 +1683,13 @@ public abstract class AbstractMethod {
                     wire.debug("---> Binary Data <---");
                 }
                 wire.debug("");
-                return input;
+                return stream;
             }
         }
         finally {
+            if( stream == null && get != null ) {
+                get.releaseConnection();
+            }
             if( std.isTraceEnabled() ) {
                 std.trace("exit - " + AbstractMethod.class.getName() + ".getStream()");
             }
@@ -1348,57 +1700,400 @@ public abstract class AbstractMethod {
         }
     }
 
-    protected @Nonnull HttpClient getClient() throws CloudException, InternalException {
-        ProviderContext ctx = provider.getContext();
+    /**
+     * Sends a request through the rate limiter of the target service, see
+     * {@link #throttle(HttpClient, HttpRequestBase, String)}. Any request other than a GET or HEAD drops the cached
+     * responses of the endpoint, whether or not it succeeded, so that later reads see what it changed.
+     */
+    private @Nonnull HttpResponse execute(@Nonnull HttpClient client, @Nonnull HttpRequestBase request, @Nonnull String endpoint) throws CloudException, InternalException, IOException {
+        String method = request.getMethod();
 
-        if( ctx == null ) {
-            throw new InternalException("No context was defined for this request");
+        if( method.equals("GET") || method.equals("HEAD") ) {
+            return throttle(client, request, endpoint);
         }
-        String endpoint = ctx.getCloud().getEndpoint();
-
-        if( endpoint == null ) {
-            throw new InternalException("No cloud endpoint was defined");
+        try {
+            return throttle(client, request, endpoint);
+        }
+        finally {
+            provider.getResponseCache().invalidate(endpoint);
         }
-        boolean ssl = endpoint.startsWith("https");
+    }
 
-        HttpParams params = new BasicHttpParams();
+    /**
+     * Sends a request through the rate limiter of the target service. When the cloud answers 413 overLimit or 429
+     * with a retry delay, the limiter is paused for that delay and the request is retried, as long as its body can be
+     * sent again and the wait fits within {@link NovaOpenStack#getRateLimitMaxWait()}. Otherwise the error response is
+     * returned with its body buffered so that the caller can report it as usual.
+     */
+    private @Nonnull HttpResponse throttle(@Nonnull HttpClient client, @Nonnull HttpRequestBase request, @Nonnull String endpoint) throws CloudException, InternalException, IOException {
+        CircuitBreaker breaker = getCircuitBreaker(endpoint);
+        RateLimiter limiter = getRateLimiter(endpoint);
 
-        HttpProtocolParams.setVersion(params, HttpVersion.HTTP_1_1);
-        //noinspection deprecation
-        HttpProtocolParams.setContentCharset(params, HTTP.UTF_8);
-        HttpProtocolParams.setUserAgent(params, "");
+        if( limiter == null ) {
+            return send(client, request, breaker);
+        }
+        RateLimiter verbLimiter = provider.getRateLimiter(endpoint, request.getMethod());
+        long deadline = Math.min(System.currentTimeMillis() + provider.getRateLimitMaxWait(), Deadline.get());
 
-        Properties p = ctx.getCustomProperties();
+        while( true ) {
+            limiter.acquire(deadline);
+            if( verbLimiter != null ) {
+                verbLimiter.acquire(deadline);
+            }
 
-        if( p != null ) {
-            String proxyHost = p.getProperty("proxyHost");
-            String proxyPort = p.getProperty("proxyPort");
+            HttpResponse response = send(client, request, breaker);
+            int code = response.getStatusLine().getStatusCode();
 
-            if( proxyHost != null ) {
-                int port = 0;
+            if( code != HttpStatus.SC_REQUEST_TOO_LONG && code != RateLimiter.SC_TOO_MANY_REQUESTS ) {
+                return response;
+            }
+            HttpEntity entity = response.getEntity();
 
-                if( proxyPort != null && proxyPort.length() > 0 ) {
-                    port = Integer.parseInt(proxyPort);
+            if( entity != null ) {
+                response.setEntity(new BufferedHttpEntity(entity));
+            }
+            long retryAfter = RateLimiter.parseRetryAfter(response);
+
+            if( retryAfter <= 0L ) {
+                if( code == HttpStatus.SC_REQUEST_TOO_LONG ) {
+                    return response; // an exhausted quota or an oversized request rather than a rate limit
                 }
-                params.setParameter(ConnRoutePNames.DEFAULT_PROXY, new HttpHost(proxyHost, port, ssl ? "https" : "http"));
+                retryAfter = 1000L;
+            }
+            limiter.pause(retryAfter);
+            provider.rateLimited(endpoint);
+            if( !isRepeatable(request) || System.currentTimeMillis() + retryAfter > deadline ) {
+                return response;
             }
+            NovaOpenStack.getLogger(NovaOpenStack.class, "std").warn("Rate limit hit for " + endpoint + ", retrying in " + retryAfter + "ms");
+            request.releaseConnection();
         }
-        DefaultHttpClient client = new DefaultHttpClient(params);
+    }
 
-        if( provider.isInsecure() ) {
-            try {
-                client.getConnectionManager().getSchemeRegistry().register(new Scheme("https", 443, new SSLSocketFactory(new TrustStrategy() {
+    /**
+     * Sends an idempotent request and, if it is still outstanding after the hedging delay of the endpoint, sends an
+     * identical request in parallel on the provider executor, under the deadline of the caller. Whichever answers
+     * first (with anything but a server error) is used and the other is aborted. A winning hedged response is handed
+     * back unbuffered and its connection is tied to the original request, so that releasing the original request
+     * releases it as well. Without a {@link HedgePolicy} for the endpoint this is the same as
+     * {@link #execute(HttpClient, HttpRequestBase, String)}.
+     */
+    private @Nonnull HttpResponse executeHedged(@Nonnull final HttpClient client, @Nonnull final HttpRequestBase request, @Nonnull final String endpoint) throws CloudException, InternalException, IOException {
+        final HedgePolicy policy = getHedgePolicy(endpoint);
+        long delay = (policy == null ? -1L : policy.begin());
+        long start = System.currentTimeMillis();
+
+        if( delay < 0L ) {
+            HttpResponse response = execute(client, request, endpoint);
+
+            if( policy != null ) {
+                policy.record(System.currentTimeMillis() - start);
+            }
+            return response;
+        }
+        final HttpRequestBase copy = (request instanceof HttpHead ? new HttpHead(request.getURI()) : new HttpGet(request.getURI()));
+        final HedgedExchange exchange = new HedgedExchange();
+
+        copy.setHeaders(request.getAllHeaders());
+        final Callable<Void> hedge = Deadline.wrap(new Callable<Void>() {
+            @Override
+            public Void call() {
+                if( !exchange.startHedge() ) {
+                    return null;
+                }
+                if( !policy.tryHedge() ) {
+                    exchange.hedgeFailed();
+                    return null;
+                }
+                try {
+                    HttpResponse response = execute(client, copy, endpoint);
 
-                    public boolean isTrusted(X509Certificate[] x509Certificates, String s) throws CertificateException {
-                        return true;
+                    if( response.getStatusLine().getStatusCode() >= HttpStatus.SC_INTERNAL_SERVER_ERROR ) {
+                        copy.abort();
+                        exchange.hedgeFailed();
                     }
-                }, SSLSocketFactory.ALLOW_ALL_HOSTNAME_VERIFIER)));
+                    else if( exchange.hedgeWins(response) ) {
+                        policy.hedgeWon();
+                        request.abort();
+                    }
+                    else {
+                        copy.abort();
+                    }
+                }
+                catch( Throwable t ) {
+                    copy.abort();
+                    exchange.hedgeFailed();
+                }
+                return null;
+            }
+        });
+        final ExecutorService executor = provider.getExecutor();
+        ScheduledFuture<?> timer = provider.getScheduler().schedule(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    executor.submit(hedge);
+                }
+                catch( RejectedExecutionException ignore ) {
+                    // the provider was closed while the request was outstanding
+                }
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+
+        try {
+            HttpResponse response = execute(client, request, endpoint);
+
+            if( response.getStatusLine().getStatusCode() < HttpStatus.SC_INTERNAL_SERVER_ERROR && exchange.primaryWins() ) {
+                copy.abort();
+                policy.record(System.currentTimeMillis() - start);
+                return response;
+            }
+            HttpResponse hedged = exchange.primaryFailed();
+
+            if( hedged != null ) {
+                return adoptHedge(request, copy, hedged);
+            }
+            copy.abort();
+            return response;
+        }
+        catch( IOException e ) {
+            HttpResponse hedged = exchange.primaryFailed();
+
+            if( hedged != null ) {
+                return adoptHedge(request, copy, hedged);
+            }
+            copy.abort();
+            throw e;
+        }
+        catch( CloudException e ) {
+            HttpResponse hedged = exchange.primaryFailed();
+
+            if( hedged != null ) {
+                return adoptHedge(request, copy, hedged);
+            }
+            copy.abort();
+            throw e;
+        }
+        finally {
+            timer.cancel(false);
+        }
+    }
+
+    /**
+     * Makes the original request own the connection of the hedge that beat it, so that the caller releases or
+     * aborts the hedge by releasing or aborting the original request once it is done with the response.
+     * @return the response of the hedge
+     */
+    static private @Nonnull HttpResponse adoptHedge(@Nonnull HttpRequestBase request, @Nonnull final HttpRequestBase hedge, @Nonnull HttpResponse response) throws IOException {
+        request.abort();
+        request.reset();
+        request.setReleaseTrigger(new ConnectionReleaseTrigger() {
+            @Override
+            public void releaseConnection() {
+                hedge.releaseConnection();
+            }
+
+            @Override
+            public void abortConnection() {
+                hedge.abort();
+            }
+        });
+        return response;
+    }
+
+    /**
+     * Tracks the race between a request and its hedge.
+     */
+    static private class HedgedExchange {
+        private HttpResponse hedgeResponse;
+        private boolean      hedgeDone;
+        private boolean      hedgeStarted;
+        private boolean      settled;
+
+        /**
+         * @return true if the hedge may be sent because the original request has neither answered nor failed
+         */
+        synchronized boolean startHedge() {
+            if( settled ) {
+                return false;
+            }
+            hedgeStarted = true;
+            return true;
+        }
+
+        /**
+         * @return true if the hedge answered first; otherwise the hedge must be aborted by the caller
+         */
+        synchronized boolean hedgeWins(@Nonnull HttpResponse response) {
+            hedgeDone = true;
+            notifyAll();
+            if( settled ) {
+                return false;
+            }
+            settled = true;
+            hedgeResponse = response;
+            return true;
+        }
+
+        synchronized void hedgeFailed() {
+            hedgeDone = true;
+            notifyAll();
+        }
+
+        /**
+         * @return true if the original request answered before the hedge
+         */
+        synchronized boolean primaryWins() {
+            if( settled ) {
+                return false;
+            }
+            settled = true;
+            return true;
+        }
+
+        /**
+         * Called when the original request failed or was beaten by the hedge. Waits for a hedge in flight to finish,
+         * but no longer than the deadline of the current operation allows.
+         * @return the response of the hedge, or null if no hedge succeeded in time
+         */
+        synchronized @Nullable HttpResponse primaryFailed() throws InternalException {
+            if( !hedgeStarted ) {
+                settled = true;
+                return null;
+            }
+            while( !hedgeDone ) {
+                long remaining = Deadline.remaining();
+
+                if( remaining < 1L ) {
+                    settled = true;
+                    return null;
+                }
+                try {
+                    wait(remaining == Long.MAX_VALUE ? 0L : remaining);
+                }
+                catch( InterruptedException e ) {
+                    Thread.currentThread().interrupt();
+                    throw new InternalException(e);
+                }
+            }
+            return hedgeResponse;
+        }
+    }
+
+    protected @Nullable HedgePolicy getHedgePolicy(@Nonnull String endpoint) {
+        return provider.getHedgePolicy(endpoint);
+    }
+
+    protected @Nullable RateLimiter getRateLimiter(@Nonnull String endpoint) {
+        return provider.getRateLimiter(endpoint);
+    }
+
+    /**
+     * Fails the request if the deadline of the current operation has passed, otherwise shortens its connect and read
+     * timeouts to the time remaining.
+     * @return true if either timeout was shortened, so that a timeout of the request may be due to the deadline
+     * rather than to the endpoint
+     */
+    static private boolean applyDeadline(@Nonnull HttpClient client, @Nonnull HttpRequestBase request) throws CloudException {
+        long remaining = Deadline.remaining();
+
+        if( remaining == Long.MAX_VALUE ) {
+            return false;
+        }
+        Deadline.check(request.getMethod() + " " + request.getURI());
+
+        HttpParams defaults = client.getParams();
+        int timeout = (int)Math.min(Integer.MAX_VALUE, remaining);
+        int connectTimeout = (defaults == null ? 0 : HttpConnectionParams.getConnectionTimeout(defaults));
+        int soTimeout = (defaults == null ? 0 : HttpConnectionParams.getSoTimeout(defaults));
+
+        HttpConnectionParams.setConnectionTimeout(request.getParams(), connectTimeout > 0 ? Math.min(connectTimeout, timeout) : timeout);
+        HttpConnectionParams.setSoTimeout(request.getParams(), soTimeout > 0 ? Math.min(soTimeout, timeout) : timeout);
+        return (connectTimeout < 1 || timeout < connectTimeout || soTimeout < 1 || timeout < soTimeout);
+    }
+
+    protected @Nullable CircuitBreaker getCircuitBreaker(@Nonnull String endpoint) {
+        return provider.getCircuitBreaker(endpoint);
+    }
+
+    /**
+     * Sends a request through the circuit breaker of the target endpoint, if any, recording whether the endpoint
+     * answered. Connection failures, timeouts and gateway or availability errors count as failures.
+     */
+    static @Nonnull HttpResponse send(@Nonnull HttpClient client, @Nonnull HttpRequestBase request, @Nullable CircuitBreaker breaker) throws CloudException, IOException {
+        boolean shortened = applyDeadline(client, request);
+
+        if( breaker == null ) {
+            return client.execute(request);
+        }
+        long ticket = breaker.acquire();
+        HttpResponse response;
+
+        try {
+            response = client.execute(request);
+        }
+        catch( IOException e ) {
+            // an aborted request, or one that timed out because its deadline shortened its timeouts, is not the
+            // endpoint's fault and must not suspend it for every other caller
+            if( request.isAborted() || Deadline.isExpired() || (shortened && e instanceof InterruptedIOException) ) {
+                breaker.release(ticket);
             }
-            catch( Throwable t ) {
-                t.printStackTrace();
+            else {
+                breaker.failure(ticket);
             }
+            throw e;
+        }
+        catch( RuntimeException e ) {
+            breaker.failure(ticket);
+            throw e;
         }
-        return client;
+        int code = response.getStatusLine().getStatusCode();
+
+        if( code == HttpStatus.SC_BAD_GATEWAY || code == HttpStatus.SC_SERVICE_UNAVAILABLE || code == HttpStatus.SC_GATEWAY_TIMEOUT ) {
+            breaker.failure(ticket);
+        }
+        else {
+            breaker.success(ticket);
+        }
+        return response;
+    }
+
+    static private boolean isRepeatable(@Nonnull HttpRequestBase request) {
+        if( request instanceof HttpEntityEnclosingRequest ) {
+            HttpEntity entity = (( HttpEntityEnclosingRequest ) request).getEntity();
+
+            return (entity == null || entity.isRepeatable());
+        }
+        return true;
+    }
+
+    static private final ThreadLocal<Boolean> retryingAuthentication = new ThreadLocal<Boolean>();
+
+    /**
+     * Handles a request rejected with HTTP 401 by refreshing the token it was made with. A request is retried at
+     * most once: if the current thread is already retrying after a 401, nothing is refreshed and false is returned
+     * so that the error propagates to the caller.
+     * @param stale the authentication context the rejected request was made with
+     * @return true if the token was refreshed and the request should be retried, in which case the caller must invoke
+     * {@link #endAuthenticationRetry()} once the retry is done
+     * @throws CloudException the cloud rejected the credentials
+     * @throws InternalException an error occurred refreshing the token
+     */
+    protected boolean beginAuthenticationRetry(@Nonnull AuthenticationContext stale) throws CloudException, InternalException {
+        if( retryingAuthentication.get() != null ) {
+            return false;
+        }
+        provider.refreshAuthenticationContext(stale);
+        retryingAuthentication.set(Boolean.TRUE);
+        return true;
+    }
+
+    protected void endAuthenticationRetry() {
+        retryingAuthentication.remove();
+    }
+
+    protected @Nonnull HttpClient getClient() throws CloudException, InternalException {
+        return provider.getConnectionPool().getClient();
     }
 
     public @Nullable Map<String,String> headResource(@Nonnull final String service, @Nullable final String resource, @Nullable final String resourceId) throws CloudException, InternalException {
@@ -1422,10 +2117,13 @@ public abstract class AbstractMethod {
             return head(context.getAuthToken(), endpoint, resourceUri);
         }
         catch (NovaException ex) {
-            if (ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED) {
-                Cache<AuthenticationContext> cache = Cache.getInstance(provider, "authenticationContext", AuthenticationContext.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Day>(1, TimePeriod.DAY));
-                cache.clear();
-                return headResource(service, resource, resourceId);
+            if( ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED && beginAuthenticationRetry(context) ) {
+                try {
+                    return headResource(service, resource, resourceId);
+                }
+                finally {
+                    endAuthenticationRetry();
+                }
             }
             else {
                 throw ex;
@@ -1444,10 +2142,10 @@ public abstract class AbstractMethod {
             wire.debug("--------------------------------------------------------> " + endpoint + resource);
             wire.debug("");
         }
-        HttpClient client = null;
+        HttpHead head = null;
         try {
-            client = getClient();
-            HttpHead head = new HttpHead(endpoint + resource);
+            HttpClient client = getClient();
+            head = new HttpHead(endpoint + resource);
             
             head.addHeader("X-Auth-Token", authToken);
             if( wire.isDebugEnabled() ) {
@@ -1461,7 +2159,7 @@ public abstract class AbstractMethod {
 
             try {
                 APITrace.trace(provider, "HEAD " + toAPIResource(resource));
-                response = client.execute(head);
+                response = executeHedged(client, head, endpoint);
                 if( wire.isDebugEnabled() ) {
                     wire.debug(response.getStatusLine().toString());
                     for( Header header : response.getAllHeaders() ) {
@@ -1515,8 +2213,8 @@ public abstract class AbstractMethod {
             return map;
         }
         finally {
-            if (client != null) {
-                client.getConnectionManager().shutdown();
+            if( head != null ) {
+                head.releaseConnection();
             }
             if( std.isTraceEnabled() ) {
                 std.trace("exit - " + AbstractMethod.class.getName() + ".head()");
@@ -1542,10 +2240,13 @@ public abstract class AbstractMethod {
             postHeaders(context.getAuthToken(), endpoint, resource + "/" + resourceId, headers);
         }
         catch (NovaException ex) {
-            if (ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED) {
-                Cache<AuthenticationContext> cache = Cache.getInstance(provider, "authenticationContext", AuthenticationContext.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Day>(1, TimePeriod.DAY));
-                cache.clear();
-                postResourceHeaders(service, resource, resourceId, headers);
+            if( ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED && beginAuthenticationRetry(context) ) {
+                try {
+                    postResourceHeaders(service, resource, resourceId, headers);
+                }
+                finally {
+                    endAuthenticationRetry();
+                }
             }
             else {
                 throw ex;
@@ -1565,10 +2266,10 @@ public abstract class AbstractMethod {
             wire.debug("---------------------------------------------------------------------------------" + endpoint + resource);
             wire.debug("");
         }
-        HttpClient client = null;
+        HttpPost post = null;
         try {
-            client = getClient();
-            HttpPost post = new HttpPost(endpoint + resource);
+            HttpClient client = getClient();
+            post = new HttpPost(endpoint + resource);
             
             post.addHeader("Content-Type", "application/json");
             post.addHeader("X-Auth-Token", authToken);
@@ -1591,7 +2292,7 @@ public abstract class AbstractMethod {
 
             try {
                 APITrace.trace(provider, "POST " + toAPIResource(resource));
-                response = client.execute(post);
+                response = execute(client, post, endpoint);
                 if( wire.isDebugEnabled() ) {
                     wire.debug(response.getStatusLine().toString());
                     for( Header header : response.getAllHeaders() ) {
@@ -1638,9 +2339,6 @@ public abstract class AbstractMethod {
                                 if( min < 1 ) {
                                     throw new GeneralCloudException(CloudErrorType.CAPACITY, 413, "Over Limit", ob.has("message") ? ob.getString("message") : "Over Limit");
                                 }
-                                try { Thread.sleep(CalendarWrapper.MINUTE * min); }
-                                catch( InterruptedException ignore ) { }
-                                return postHeaders(authToken, endpoint, resource, customHeaders);
                             }
                         }
                     }
@@ -1708,8 +2406,8 @@ public abstract class AbstractMethod {
             }
         }
         finally {
-            if (client != null) {
-                client.getConnectionManager().shutdown();
+            if( post != null ) {
+                post.releaseConnection();
             }
             if( std.isTraceEnabled() ) {
                 std.trace("exit - " + AbstractMethod.class.getName() + ".postString()");
@@ -1742,10 +2440,13 @@ public abstract class AbstractMethod {
             }
         }
         catch (NovaException ex) {
-            if (ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED) {
-                Cache<AuthenticationContext> cache = Cache.getInstance(provider, "authenticationContext", AuthenticationContext.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Day>(1, TimePeriod.DAY));
-                cache.clear();
-                return postString(service, resource, resourceId, extra, body);
+            if( ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED && beginAuthenticationRetry(context) ) {
+                try {
+                    return postString(service, resource, resourceId, extra, body);
+                }
+                finally {
+                    endAuthenticationRetry();
+                }
             }
             else {
                 throw ex;
@@ -1778,10 +2479,13 @@ public abstract class AbstractMethod {
             }
         }
         catch (NovaException ex) {
-            if (ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED) {
-                Cache<AuthenticationContext> cache = Cache.getInstance(provider, "authenticationContext", AuthenticationContext.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Day>(1, TimePeriod.DAY));
-                cache.clear();
-                return postString(service, resource, resourceId, body, suffix);
+            if( ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED && beginAuthenticationRetry(context) ) {
+                try {
+                    return postString(service, resource, resourceId, body, suffix);
+                }
+                finally {
+                    endAuthenticationRetry();
+                }
             }
             else {
                 throw ex;
@@ -1800,10 +2504,10 @@ public abstract class AbstractMethod {
             wire.debug("---------------------------------------------------------------------------------" + endpoint + resource);
             wire.debug("");
         }
-        HttpClient client = null;
+        HttpPost post = null;
         try {
-            client = getClient();
-            HttpPost post = new HttpPost(endpoint + resource);
+            HttpClient client = getClient();
+            post = new HttpPost(endpoint + resource);
             
             post.addHeader("Content-Type", "application/json");
             post.addHeader("X-Auth-Token", authToken);
@@ -1831,7 +2535,7 @@ public abstract class AbstractMethod {
 
             try {
                 std.debug("POST " + toAPIResource(resource));
-                response = client.execute(post);
+                response = execute(client, post, endpoint);
                 if( wire.isDebugEnabled() ) {
                     wire.debug(response.getStatusLine().toString());
                     for( Header header : response.getAllHeaders() ) {
@@ -1875,9 +2579,6 @@ public abstract class AbstractMethod {
                             if( min < 1 ) {
                                 throw new GeneralCloudException(CloudErrorType.CAPACITY, 413, "Over Limit", ob.has("message") ? ob.getString("message") : "Over Limit");
                             }
-                            try { Thread.sleep(CalendarWrapper.MINUTE * min); }
-                            catch( InterruptedException ignore ) { }
-                            return postString(authToken, endpoint, resource, payload);
                         }
                     }
                 }
@@ -1952,8 +2653,8 @@ public abstract class AbstractMethod {
             }
         }
         finally {
-            if (client != null) {
-                client.getConnectionManager().shutdown();
+            if( post != null ) {
+                post.releaseConnection();
             }
             if( std.isTraceEnabled() ) {
                 std.trace("exit - " + AbstractMethod.class.getName() + ".postString()");
@@ -1977,10 +2678,10 @@ public abstract class AbstractMethod {
             wire.debug("---------------------------------------------------------------------------------" + endpoint + resource);
             wire.debug("");
         }
-        HttpClient client = null;
+        HttpPost post = null;
         try {
-            client = getClient();
-            HttpPost post = new HttpPost(endpoint + resource);
+            HttpClient client = getClient();
+            post = new HttpPost(endpoint + resource);
             
             post.addHeader("Content-Type", "application/octet-stream");
             post.addHeader("X-Auth-Token", authToken);
@@ -2000,7 +2701,7 @@ public abstract class AbstractMethod {
 
             try {
                 APITrace.trace(provider, "POST " + toAPIResource(resource));
-                response = client.execute(post);
+                response = execute(client, post, endpoint);
                 if( wire.isDebugEnabled() ) {
                     wire.debug(response.getStatusLine().toString());
                     for( Header header : response.getAllHeaders() ) {
@@ -2086,8 +2787,8 @@ public abstract class AbstractMethod {
             }
         }
         finally {
-            if (client != null) {
-                client.getConnectionManager().shutdown();
+            if( post != null ) {
+                post.releaseConnection();
             }
             if( std.isTraceEnabled() ) {
                 std.trace("exit - " + NovaOpenStack.class.getName() + ".postStream()");
@@ -2120,10 +2821,13 @@ public abstract class AbstractMethod {
             putHeaders(context.getAuthToken(), endpoint, resourceUri, headers);
         }
         catch (NovaException ex) {
-            if (ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED) {
-                Cache<AuthenticationContext> cache = Cache.getInstance(provider, "authenticationContext", AuthenticationContext.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Day>(1, TimePeriod.DAY));
-                cache.clear();
-                putResourceHeaders(service, resource, resourceId, headers);
+            if( ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED && beginAuthenticationRetry(context) ) {
+                try {
+                    putResourceHeaders(service, resource, resourceId, headers);
+                }
+                finally {
+                    endAuthenticationRetry();
+                }
             }
             else {
                 throw ex;
@@ -2143,10 +2847,10 @@ public abstract class AbstractMethod {
             wire.debug("---------------------------------------------------------------------------------" + endpoint + resource);
             wire.debug("");
         }
-        HttpClient client = null;
+        HttpPut put = null;
         try {
-            client = getClient();
-            HttpPut put = new HttpPut(endpoint + resource);
+            HttpClient client = getClient();
+            put = new HttpPut(endpoint + resource);
             
             put.addHeader("Content-Type", "application/json");
             put.addHeader("X-Auth-Token", authToken);
@@ -2169,7 +2873,7 @@ public abstract class AbstractMethod {
 
             try {
                 APITrace.trace(provider, "PUT " + toAPIResource(resource));
-                response = client.execute(put);
+                response = execute(client, put, endpoint);
                 if( wire.isDebugEnabled() ) {
                     wire.debug(response.getStatusLine().toString());
                     for( Header header : response.getAllHeaders() ) {
@@ -2244,8 +2948,8 @@ public abstract class AbstractMethod {
             }
         }
         finally {
-            if (client != null) {
-                client.getConnectionManager().shutdown();
+            if( put != null ) {
+                put.releaseConnection();
             }
             if( std.isTraceEnabled() ) {
                 std.trace("exit - " + AbstractMethod.class.getName() + ".putString()");
@@ -2280,10 +2984,13 @@ public abstract class AbstractMethod {
     		}
     	}
     	catch (NovaException ex) {
-    		if (ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED) {
-    			Cache<AuthenticationContext> cache = Cache.getInstance(provider, "authenticationContext", AuthenticationContext.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Day>(1, TimePeriod.DAY));
-    			cache.clear();
-    			return putString(service, resource, resourceId, body, suffix);
+            if( ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED && beginAuthenticationRetry(context) ) {
+                try {
+                    return putString(service, resource, resourceId, body, suffix);
+                }
+                finally {
+                    endAuthenticationRetry();
+                }
     		}
     		else {
     			throw ex;
@@ -2302,10 +3009,10 @@ public abstract class AbstractMethod {
             wire.debug("---------------------------------------------------------------------------------" + endpoint + resource);
             wire.debug("");
         }
-        HttpClient client = null;
+        HttpPut put = null;
         try {
-            client = getClient();
-            HttpPut put = new HttpPut(endpoint + resource);
+            HttpClient client = getClient();
+            put = new HttpPut(endpoint + resource);
             
             put.addHeader("Content-Type", "application/json");
             put.addHeader("X-Auth-Token", authToken);
@@ -2334,7 +3041,7 @@ public abstract class AbstractMethod {
 
             try {
                 APITrace.trace(provider, "PUT " + toAPIResource(resource));
-                response = client.execute(put);
+                response = execute(client, put, endpoint);
                 if( wire.isDebugEnabled() ) {
                     wire.debug(response.getStatusLine().toString());
                     for( Header header : response.getAllHeaders() ) {
@@ -2409,8 +3116,8 @@ public abstract class AbstractMethod {
             }
         }
         finally {
-            if (client != null) {
-                client.getConnectionManager().shutdown();
+            if( put != null ) {
+                put.releaseConnection();
             }
             if( std.isTraceEnabled() ) {
                 std.trace("exit - " + AbstractMethod.class.getName() + ".putString()");
@@ -2433,10 +3140,10 @@ public abstract class AbstractMethod {
             wire.debug("---------------------------------------------------------------------------------" + endpoint + resource);
             wire.debug("");
         }
-        HttpClient client = null;
+        HttpPut put = null;
         try {
-            client = getClient();
-            HttpPut put = new HttpPut(endpoint + resource);
+            HttpClient client = getClient();
+            put = new HttpPut(endpoint + resource);
             
             put.addHeader("Content-Type", "application/octet-stream");
             put.addHeader("X-Auth-Token", authToken);
@@ -2459,7 +3166,7 @@ public abstract class AbstractMethod {
 
             try {
                 APITrace.trace(provider, "PUT " + toAPIResource(resource));
-                response = client.execute(put);
+                response = execute(client, put, endpoint);
                 if( wire.isDebugEnabled() ) {
                     wire.debug(response.getStatusLine().toString());
                     for( Header header : response.getAllHeaders() ) {
@@ -2544,8 +3251,8 @@ public abstract class AbstractMethod {
             }
         }
         finally {
-            if (client != null) {
-                client.getConnectionManager().shutdown();
+            if( put != null ) {
+                put.releaseConnection();
             }
             if( std.isTraceEnabled() ) {
                 std.trace("exit - " + NovaOpenStack.class.getName() + ".putStream()");
@@ -2557,6 +3264,33 @@ public abstract class AbstractMethod {
         }
     }
     
+    /**
+     * Converts the Keystone token expiry into a time on the local clock. When the issue time is known, only the
+     * token lifetime is taken from the server so that clock skew between Keystone and this host does not matter.
+     * @return the local expiration time in milliseconds, or 0 if it cannot be determined
+     */
+    private long toLocalExpiration(@Nonnull String expires, @Nullable String issuedAt) {
+        try {
+            long expiration = NovaOpenStack.parseTimestamp(expires);
+
+            if( expiration <= 0L ) {
+                return 0L;
+            }
+            if( issuedAt != null ) {
+                long issued = NovaOpenStack.parseTimestamp(issuedAt);
+
+                if( issued > 0L && issued < expiration ) {
+                    return System.currentTimeMillis() + (expiration - issued);
+                }
+            }
+            return expiration;
+        }
+        catch( InternalException e ) {
+            NovaOpenStack.getLogger(AbstractMethod.class, "std").warn("Ignoring unparseable token expiry: " + expires);
+            return 0L;
+        }
+    }
+
     private @Nonnull String toRegion(@Nonnull String endpoint) {
         Logger logger = NovaOpenStack.getLogger(NovaOpenStack.class, "std");
         
@@ -22,40 +22,213 @@ package org.dasein.cloud.openstack.nova.os;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 
 import org.dasein.cloud.dc.Jurisdiction;
 import org.dasein.cloud.dc.Region;
 
+import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 public class AuthenticationContext { 
-    private String                         authToken;
-    private Map<String,Map<String,String>> endpoints;
-    private String                         myRegion;
-    private String                         storageToken;
-    private String                         tenantId;
+    private final String                         authToken;
+    private final String                         computeUrl;
+    private final long                           created;
+    private final Map<String,Map<String,String>> endpoints;
+    private final long                           expiration;
+    private final int                            majorVersion;
+    private final int                            minorVersion;
+    private final String                         myRegion;
+    private final Map<String,String>             serviceTypes;
+    private final Map<String,String>             serviceUrls;
+    private final String                         storageToken;
+    private final String                         tenantId;
 
     public AuthenticationContext(@Nonnull String regionId, @Nonnull String token, @Nonnull String tenantId, @Nonnull Map<String,Map<String,String>> services, @Nullable String storageToken) {
-        myRegion = regionId;
+        this(regionId, token, tenantId, services, storageToken, 0L);
+    }
+
+    /**
+     * @param expiration the time, in milliseconds on the local clock, at which the token expires; 0 if unknown
+     */
+    public AuthenticationContext(@Nonnull String regionId, @Nonnull String token, @Nonnull String tenantId, @Nonnull Map<String,Map<String,String>> services, @Nullable String storageToken, long expiration) {
         authToken = token;
         endpoints = services;
+        myRegion = (regionId == null ? pickRegion(services) : regionId);
+        serviceUrls = indexServices(services, myRegion);
+
+        Map<String,String> types = new HashMap<String, String>();
+
+        for( Map.Entry<String,String> entry : serviceUrls.entrySet() ) {
+            types.put(trimSlash(entry.getValue()), entry.getKey());
+        }
+        serviceTypes = Collections.unmodifiableMap(types);
+        computeUrl = (services.get("compute") == null ? null : services.get("compute").get(myRegion));
+
+        String versionUrl = (computeUrl == null ? serviceUrls.get("object-store") : computeUrl);
+
+        majorVersion = parseVersion(versionUrl, true);
+        minorVersion = parseVersion(versionUrl, false);
         this.tenantId = tenantId;
         this.storageToken = storageToken;
+        this.expiration = expiration;
+        this.created = System.currentTimeMillis();
     }
 
     public @Nonnull String getAuthToken() {
         return authToken;
     }
     
-    public @Nullable String getComputeUrl() {
-        Map<String,String> map = endpoints.get("compute");
-        
-        if( map == null ) {
-            return null;
+    /**
+     * @return the time at which the token expires, in milliseconds on the local clock, or 0 if the cloud did not say
+     */
+    public long getExpiration() {
+        return expiration;
+    }
+
+    /**
+     * @return the time at which a replacement token should be requested, 90% of the way through the token lifetime,
+     * or 0 if the expiration is unknown
+     */
+    public long getRenewalTime() {
+        if( expiration <= created ) {
+            return (expiration > 0L ? expiration : 0L);
         }
-        return map.get(myRegion);
+        return created + ((expiration - created) * 9L) / 10L;
+    }
+
+    public boolean isExpired() {
+        return (expiration > 0L && expiration <= System.currentTimeMillis());
+    }
+
+    /**
+     * Chooses a region when none was specified, preferring one that offers compute.
+     */
+    static private @Nullable String pickRegion(@Nonnull Map<String,Map<String,String>> services) {
+        Map<String,String> map = services.get("compute");
+
+        if( map == null || map.isEmpty() ) {
+            for( Map<String,String> m : services.values() ) {
+                if( m != null && !m.isEmpty() ) {
+                    map = m;
+                    break;
+                }
+            }
+        }
+        return (map == null || map.isEmpty() ? null : map.keySet().iterator().next());
+    }
+
+    /**
+     * Resolves the URL of every service in the catalog for the specified region. An exact region match wins; otherwise
+     * an endpoint whose region is a suffix of the specified region, or one with no region at all, is used.
+     */
+    static private @Nonnull Map<String,String> indexServices(@Nonnull Map<String,Map<String,String>> services, @Nullable String region) {
+        Map<String,String> index = new HashMap<String, String>();
+
+        for( Map.Entry<String,Map<String,String>> service : services.entrySet() ) {
+            Map<String,String> map = service.getValue();
+
+            if( map == null ) {
+                continue;
+            }
+            String endpoint = null;
+
+            for( Map.Entry<String,String> entry : map.entrySet() ) {
+                String key = entry.getKey();
+
+                if( key == null ) {
+                    endpoint = entry.getValue();
+                }
+                else if( key.equals(region) ) {
+                    endpoint = entry.getValue();
+                    break;
+                }
+                else if( region != null && region.endsWith(key) ) {
+                    endpoint = entry.getValue();
+                }
+            }
+            if( endpoint != null ) {
+                index.put(service.getKey(), endpoint);
+            }
+        }
+        return Collections.unmodifiableMap(index);
+    }
+
+    /**
+     * Extracts the API version from the last versioned path element of a service URL, such as v1.1 or v2, so that
+     * a numeric tenant ID following it, as in /v2/12345, is not mistaken for the version. Without such an element,
+     * the last numeric path element is used. A version without a minor part reports its major number as the minor
+     * version as well.
+     * @param endpoint the service URL
+     * @param major true for the major version, false for the minor version
+     * @return the requested version number, 1 if none can be found
+     */
+    static private int parseVersion(@Nullable String endpoint, boolean major) {
+        if( endpoint == null ) {
+            return 1;
+        }
+        while( endpoint.endsWith("/") && endpoint.length() > 1 ) {
+            endpoint = endpoint.substring(0,endpoint.length()-1);
+        }
+        String[] parts = endpoint.split("/");
+
+        for( int idx = parts.length-1; idx >= 0; idx-- ) {
+            String part = parts[idx];
+
+            if( part.length() > 1 && (part.charAt(0) == 'v' || part.charAt(0) == 'V') && part.substring(1).matches("\\d+(\\.\\d+)?") ) {
+                try {
+                    return toVersion(part.substring(1), major);
+                }
+                catch( NumberFormatException ignore ) {
+                    // ignore
+                }
+            }
+        }
+        for( int idx = parts.length-1; idx >= 0; idx-- ) {
+            String part = parts[idx];
+
+            if( part.length() < 1 ) {
+                continue;
+            }
+            while( !Character.isDigit(part.charAt(0)) && part.length() > 1 ) {
+                part = part.substring(1);
+            }
+            if( Character.isDigit(part.charAt(0)) ) {
+                try {
+                    return toVersion(part, major);
+                }
+                catch( NumberFormatException ignore ) {
+                    // ignore
+                }
+            }
+        }
+        return 1;
+    }
+
+    static private int toVersion(@Nonnull String version, boolean major) {
+        if( version.indexOf('.') == -1 ) {
+            return Integer.parseInt(version);
+        }
+        String[] d = version.split("\\.");
+
+        return Integer.parseInt(major ? d[0] : d[1]);
+    }
+
+    public @Nullable String getComputeUrl() {
+        return computeUrl;
+    }
+
+    /**
+     * @return the major API version of the compute service (or object storage when there is no compute)
+     */
+    public @Nonnegative int getMajorVersion() {
+        return majorVersion;
+    }
+
+    public @Nonnegative int getMinorVersion() {
+        return minorVersion;
     }
 
     public @Nullable String getNetworkUrl() {
@@ -82,29 +255,20 @@ public class AuthenticationContext {
         return myRegion;
     }
 
-    public @Nullable String getServiceUrl(String service) {
-        Map<String,String> map = endpoints.get(service);
+    static private @Nonnull String trimSlash(@Nonnull String url) {
+        return (url.endsWith("/") ? url.substring(0, url.length()-1) : url);
+    }
 
-        if( map == null ) {
-            return null;
-        }
-        String endpoint = null;
+    /**
+     * @param url a service URL as returned by {@link #getServiceUrl(String)}, with or without a trailing slash
+     * @return the catalog type of the service at that URL, such as compute or image, or null if it is not in the catalog
+     */
+    public @Nullable String getServiceType(@Nonnull String url) {
+        return serviceTypes.get(trimSlash(url));
+    }
 
-        for( String key : map.keySet() ) {
-            if( myRegion == null ) {
-                myRegion = key;
-            }
-            if( key == null ) {
-                endpoint = map.get(null);
-            }
-            else if( key.equals(myRegion) ) {
-                return map.get(myRegion);
-            }
-            else if( myRegion.endsWith(key) ) {
-                endpoint = map.get(key);
-            }
-        }
-        return endpoint;
+    public @Nullable String getServiceUrl(String service) {
+        return serviceUrls.get(service);
     }
     
     public @Nonnull Collection<Region> listRegions() {
@@ -0,0 +1,218 @@
+/**
+ * Copyright (C) 2009-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.openstack.nova.os;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+import org.apache.log4j.Logger;
+import org.dasein.cloud.CommunicationException;
+
+/**
+ * Stops requests to a service endpoint that keeps failing. After a number of consecutive failures (I/O errors,
+ * timeouts or 502/503/504 responses) the breaker opens and requests fail immediately instead of waiting for the
+ * endpoint to time out. Once the open period has elapsed, a single probe request is let through: if it succeeds the
+ * breaker closes again, otherwise it stays open for another period. A probe that is abandoned before the endpoint
+ * answers, or that has not finished within the open period, makes way for another probe. The ticket handed out by
+ * {@link #acquire()} identifies the probe, so that requests which were already in flight when the breaker opened
+ * cannot close or reopen it while the probe is running.
+ * @since 2016.02
+ */
+public class CircuitBreaker {
+    static private final Logger logger = NovaOpenStack.getLogger(CircuitBreaker.class, "std");
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /**
+     * The ticket of a request that is not a probe.
+     */
+    static public final long NO_PROBE = 0L;
+
+    static private final ConcurrentMap<String,CircuitBreaker> breakers = new ConcurrentHashMap<String, CircuitBreaker>();
+
+    /**
+     * Provides the breaker of an endpoint. There is one breaker per endpoint in the JVM, shared by every provider
+     * talking to it, and its settings are those of the first caller; a caller asking for other settings gets the
+     * existing breaker and a warning is logged once.
+     * @param endpoint the base URL of a service
+     * @param threshold the number of consecutive failures that open the breaker
+     * @param openMillis how long the breaker stays open before a probe is let through
+     * @return the breaker for the specified endpoint, created with the specified settings if it does not exist yet
+     */
+    static public @Nonnull CircuitBreaker getInstance(@Nonnull String endpoint, @Nonnegative int threshold, @Nonnegative long openMillis) {
+        CircuitBreaker breaker = breakers.get(endpoint);
+
+        if( breaker == null ) {
+            CircuitBreaker existing = breakers.putIfAbsent(endpoint, breaker = new CircuitBreaker(endpoint, threshold, openMillis));
+
+            if( existing != null ) {
+                breaker = existing;
+            }
+        }
+        if( (breaker.threshold != Math.max(1, threshold) || breaker.openMillis != openMillis) && !breaker.conflictReported ) {
+            breaker.conflictReported = true;
+            logger.warn("Circuit breaker of " + endpoint + " keeps its settings (threshold " + breaker.threshold + ", open " + breaker.openMillis + "ms); ignoring threshold " + threshold + ", open " + openMillis + "ms");
+        }
+        return breaker;
+    }
+
+    /**
+     * @return the breakers of every service endpoint contacted so far, keyed by endpoint
+     */
+    static public @Nonnull Map<String,CircuitBreaker> getAll() {
+        return Collections.unmodifiableMap(new TreeMap<String, CircuitBreaker>(breakers));
+    }
+
+    private final String     endpoint;
+    private final long       openMillis;
+    private final AtomicLong rejected = new AtomicLong();
+    private final int        threshold;
+    private final AtomicLong trips    = new AtomicLong();
+
+    private volatile boolean conflictReported;
+    private int              failures;
+    private long             openedAt; // when the breaker opened or, while half open, when the probe was let through
+    private long             probe;    // the ticket of the latest probe
+    private State            state = State.CLOSED;
+
+    CircuitBreaker(@Nonnull String endpoint, @Nonnegative int threshold, @Nonnegative long openMillis) {
+        this.endpoint = endpoint;
+        this.threshold = Math.max(1, threshold);
+        this.openMillis = openMillis;
+    }
+
+    /**
+     * Checks whether a request may be sent to the endpoint.
+     * @return the ticket to pass to {@link #success(long)}, {@link #failure(long)} or {@link #release(long)} once the
+     * request is done: {@link #NO_PROBE} while the breaker is closed, otherwise the ticket of the probe
+     * @throws CommunicationException the breaker is open, or a probe is already in flight
+     */
+    public long acquire() throws CommunicationException {
+        synchronized( this ) {
+            if( state == State.CLOSED ) {
+                return NO_PROBE;
+            }
+            long now = System.currentTimeMillis();
+
+            if( now - openedAt >= openMillis ) {
+                if( state == State.HALF_OPEN ) {
+                    logger.warn("Probe of " + endpoint + " did not finish within " + openMillis + "ms, letting another through");
+                }
+                state = State.HALF_OPEN;
+                openedAt = now;
+                return ++probe;
+            }
+        }
+        rejected.incrementAndGet();
+        throw new CommunicationException("Requests to " + endpoint + " are suspended after repeated failures");
+    }
+
+    /**
+     * Records a request that reached the endpoint and got a usable answer. Only the probe closes a breaker that is not
+     * closed; a request sent before the breaker opened says nothing about whether the endpoint has recovered.
+     * @param ticket the ticket returned by {@link #acquire()} for the request
+     */
+    public synchronized void success(long ticket) {
+        if( state != State.CLOSED ) {
+            if( state != State.HALF_OPEN || ticket != probe ) {
+                return;
+            }
+            logger.info("Requests to " + endpoint + " resumed");
+        }
+        state = State.CLOSED;
+        failures = 0;
+    }
+
+    /**
+     * Records a request that was aborted before the endpoint answered, such as a losing hedge or a request that ran
+     * out of time under its deadline. It says nothing about the endpoint, but if it was the probe, the breaker opens
+     * again so that another probe is let through after the open period.
+     * @param ticket the ticket returned by {@link #acquire()} for the request
+     */
+    public synchronized void release(long ticket) {
+        if( state == State.HALF_OPEN && ticket == probe ) {
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Records a request that failed because the endpoint was unreachable, timed out or unavailable. While the breaker
+     * is not closed, only a failure of the probe opens it for another period.
+     * @param ticket the ticket returned by {@link #acquire()} for the request
+     */
+    public synchronized void failure(long ticket) {
+        if( state == State.CLOSED ) {
+            failures++;
+            if( failures >= threshold ) {
+                trips.incrementAndGet();
+                logger.warn("Suspending requests to " + endpoint + " for " + openMillis + "ms after " + failures + " consecutive failures");
+                state = State.OPEN;
+                openedAt = System.currentTimeMillis();
+            }
+        }
+        else if( state == State.HALF_OPEN && ticket == probe ) {
+            failures++;
+            state = State.OPEN;
+            openedAt = System.currentTimeMillis();
+        }
+    }
+
+    public @Nonnull String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * @return the number of consecutive failures recorded since the last success
+     */
+    public synchronized @Nonnegative int getFailures() {
+        return failures;
+    }
+
+    /**
+     * @return the number of requests failed fast because the breaker was open
+     */
+    public @Nonnegative long getRejected() {
+        return rejected.get();
+    }
+
+    public synchronized @Nonnull State getState() {
+        return state;
+    }
+
+    /**
+     * @return the number of times the breaker has opened
+     */
+    public @Nonnegative long getTrips() {
+        return trips.get();
+    }
+
+    @Override
+    public @Nonnull String toString() {
+        return endpoint + " [state=" + getState() + ", failures=" + getFailures() + ", trips=" + trips + ", rejected=" + rejected + "]";
+    }
+}
@@ -0,0 +1,200 @@
+/**
+ * Copyright (C) 2009-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.openstack.nova.os;
+
+import java.util.concurrent.Callable;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+import org.apache.http.HttpStatus;
+import org.dasein.cloud.CloudErrorType;
+import org.dasein.cloud.CloudException;
+
+/**
+ * The time by which the operation running on the current thread must complete. Every request sent through
+ * {@link AbstractMethod} and every polling loop of the provider honors the remaining time, so a caller can bound a
+ * high-level operation that issues many requests. Budgets nest: an inner budget can only shorten an outer one.
+ * <pre>
+ *     long previous = Deadline.begin(30000L);
+ *
+ *     try {
+ *         vmSupport.launch(options);
+ *     }
+ *     finally {
+ *         Deadline.end(previous);
+ *     }
+ * </pre>
+ * @since 2016.02
+ */
+public final class Deadline {
+    /**
+     * The value of {@link #get()} when no deadline is in effect.
+     */
+    static public final long NONE = Long.MAX_VALUE;
+
+    static private final ThreadLocal<Long> current = new ThreadLocal<Long>();
+
+    private Deadline() { }
+
+    /**
+     * Starts a time budget for the current thread. If a tighter deadline is already in effect, it is kept.
+     * @param timeout the budget in milliseconds; 0 or less leaves the current deadline unchanged
+     * @return the previous deadline, to be passed to {@link #end(long)}
+     */
+    static public long begin(long timeout) {
+        long previous = get();
+
+        if( timeout > 0L ) {
+            long deadline = System.currentTimeMillis() + timeout;
+
+            if( deadline < previous ) {
+                current.set(deadline);
+            }
+        }
+        return previous;
+    }
+
+    /**
+     * Puts the current thread under a deadline captured with {@link #get()} on the thread that handed it work, for
+     * work that cannot be wrapped with {@link #wrap(Callable)}. If a tighter deadline is already in effect, it is kept.
+     * @param deadline the deadline of the thread that handed the work over
+     * @return the previous deadline, to be passed to {@link #end(long)}
+     */
+    static public long adopt(long deadline) {
+        long previous = get();
+
+        if( deadline < previous ) {
+            current.set(deadline);
+        }
+        return previous;
+    }
+
+    /**
+     * Restores the deadline that was in effect before the matching {@link #begin(long)}.
+     * @param previous the value returned by {@link #begin(long)}
+     */
+    static public void end(long previous) {
+        if( previous == NONE ) {
+            current.remove();
+        }
+        else {
+            current.set(previous);
+        }
+    }
+
+    /**
+     * @return the time in milliseconds since the epoch by which the current operation must complete, or {@link #NONE}
+     */
+    static public long get() {
+        Long deadline = current.get();
+
+        return (deadline == null ? NONE : deadline);
+    }
+
+    /**
+     * @return the number of milliseconds left, or {@link Long#MAX_VALUE} if no deadline is in effect
+     */
+    static public long remaining() {
+        long deadline = get();
+
+        return (deadline == NONE ? Long.MAX_VALUE : Math.max(0L, deadline - System.currentTimeMillis()));
+    }
+
+    static public boolean isExpired() {
+        return (remaining() < 1L);
+    }
+
+    /**
+     * @param operation the operation or request that cannot go on, for the error message
+     * @throws CloudException the deadline has passed
+     */
+    static public void check(@Nonnull String operation) throws CloudException {
+        if( isExpired() ) {
+            throw exceeded(operation);
+        }
+    }
+
+    /**
+     * @param operation the operation or request that cannot go on, for the error message
+     * @return the error reporting that the deadline has passed
+     */
+    static @Nonnull NovaException exceeded(@Nonnull String operation) {
+        NovaException.ExceptionItems items = new NovaException.ExceptionItems();
+
+        items.code = HttpStatus.SC_REQUEST_TIMEOUT;
+        items.type = CloudErrorType.COMMUNICATION;
+        items.message = "deadlineExceeded";
+        items.details = "The time allowed for the operation ran out during " + operation;
+        return new NovaException(items);
+    }
+
+    /**
+     * Sleeps between polls, waking early if the deadline arrives first.
+     * @param millis the desired sleep
+     * @return false if the deadline has passed or the thread was interrupted, in which case polling should stop
+     */
+    static public boolean sleep(@Nonnegative long millis) {
+        long wait = Math.min(millis, remaining());
+
+        if( wait < 1L ) {
+            return false;
+        }
+        try {
+            Thread.sleep(wait);
+        }
+        catch( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        return !isExpired();
+    }
+
+    /**
+     * @param task a task to be run on another thread
+     * @return a task that runs under the deadline of the calling thread
+     */
+    static public @Nonnull <T> Callable<T> wrap(@Nonnull final Callable<T> task) {
+        final long deadline = get();
+
+        if( deadline == NONE ) {
+            return task;
+        }
+        return new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                Long previous = current.get();
+
+                current.set(deadline);
+                try {
+                    return task.call();
+                }
+                finally {
+                    if( previous == null ) {
+                        current.remove();
+                    }
+                    else {
+                        current.set(previous);
+                    }
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,150 @@
+/**
+ * Copyright (C) 2009-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.openstack.nova.os;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+/**
+ * Decides when an idempotent request to a service endpoint is slow enough to be worth sending a second time. The
+ * policy keeps a window of recent response times for the endpoint and hedges once a request has been outstanding
+ * longer than a given percentile of that window, as long as hedges stay within a fixed share of all requests.
+ * @since 2016.02
+ */
+public class HedgePolicy {
+    static public final int SAMPLE_SIZE = 128;
+    static public final int MIN_SAMPLES = 20;
+
+    static private final ConcurrentMap<String,HedgePolicy> policies = new ConcurrentHashMap<String, HedgePolicy>();
+
+    /**
+     * @param endpoint the base URL of a service
+     * @param percentile the percentile of recent response times after which a request is hedged
+     * @param budget the largest share of requests that may be hedged, between 0 and 1
+     * @return the policy for the specified endpoint, created with the specified settings if it does not exist yet
+     */
+    static public @Nonnull HedgePolicy getInstance(@Nonnull String endpoint, double percentile, double budget) {
+        HedgePolicy policy = policies.get(endpoint);
+
+        if( policy == null ) {
+            HedgePolicy existing = policies.putIfAbsent(endpoint, policy = new HedgePolicy(endpoint, percentile, budget));
+
+            if( existing != null ) {
+                policy = existing;
+            }
+        }
+        return policy;
+    }
+
+    private final double budget;
+    private final String endpoint;
+    private final double percentile;
+    private final long[] samples = new long[SAMPLE_SIZE];
+
+    private long count;
+    private long hedged;
+    private long requests;
+    private long won;
+
+    HedgePolicy(@Nonnull String endpoint, double percentile, double budget) {
+        this.endpoint = endpoint;
+        this.percentile = Math.min(100.0, Math.max(0.0, percentile));
+        this.budget = Math.min(1.0, Math.max(0.0, budget));
+    }
+
+    /**
+     * Registers a new request and determines how long to wait for it before hedging.
+     * @return the delay in milliseconds, or -1 if not enough response times have been seen yet
+     */
+    public synchronized long begin() {
+        requests++;
+        if( count < MIN_SAMPLES ) {
+            return -1L;
+        }
+        int n = (int)Math.min(count, SAMPLE_SIZE);
+        long[] sorted = Arrays.copyOf(samples, n);
+
+        Arrays.sort(sorted);
+        int rank = (int)Math.ceil(percentile / 100.0 * n) - 1;
+
+        return sorted[Math.max(0, Math.min(n - 1, rank))];
+    }
+
+    /**
+     * @param millis how long a request took to produce a response
+     */
+    public synchronized void record(@Nonnegative long millis) {
+        samples[(int)(count % SAMPLE_SIZE)] = millis;
+        count++;
+    }
+
+    /**
+     * Consumes budget for one hedged request.
+     * @return true if a hedge may be sent without exceeding the budget
+     */
+    public synchronized boolean tryHedge() {
+        if( hedged + 1 > budget * requests ) {
+            return false;
+        }
+        hedged++;
+        return true;
+    }
+
+    /**
+     * Records that a hedged request answered before the request it duplicated.
+     */
+    public synchronized void hedgeWon() {
+        won++;
+    }
+
+    public @Nonnull String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * @return the number of hedged requests sent
+     */
+    public synchronized @Nonnegative long getHedged() {
+        return hedged;
+    }
+
+    /**
+     * @return the number of hedged requests that answered first
+     */
+    public synchronized @Nonnegative long getHedgesWon() {
+        return won;
+    }
+
+    /**
+     * @return the number of requests eligible for hedging
+     */
+    public synchronized @Nonnegative long getRequests() {
+        return requests;
+    }
+
+    @Override
+    public @Nonnull String toString() {
+        return endpoint + " [requests=" + getRequests() + ", hedged=" + getHedged() + ", won=" + getHedgesWon() + "]";
+    }
+}
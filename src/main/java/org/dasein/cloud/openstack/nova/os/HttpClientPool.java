@@ -0,0 +1,248 @@
+/**
+ * Copyright (C) 2009-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.openstack.nova.os;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.apache.http.HttpHost;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.params.ClientPNames;
+import org.apache.http.conn.params.ConnRoutePNames;
+import org.apache.http.conn.scheme.Scheme;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.conn.ssl.SSLSocketFactory;
+import org.apache.http.conn.ssl.TrustStrategy;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.impl.conn.SchemeRegistryFactory;
+import org.apache.http.params.BasicHttpParams;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.params.HttpParams;
+import org.apache.http.params.HttpProtocolParams;
+import org.apache.http.protocol.HTTP;
+import org.apache.log4j.Logger;
+import org.dasein.cloud.InternalException;
+import org.dasein.cloud.ProviderContext;
+
+/**
+ * A keep-alive connection pool shared by every provider instance talking to the same endpoint host through the
+ * same proxy and SSL settings. Providers acquire a pool on first use and release it in {@link NovaOpenStack#close()};
+ * the underlying connection manager and the thread evicting its idle connections are shut down once the last
+ * provider has released it.
+ * <p>
+ * The pool is tuned through the following custom properties on the provider context:
+ * <ul>
+ *     <li>maxConnections - total connections held by the pool (default 50)</li>
+ *     <li>maxConnectionsPerRoute - connections held per target host (default 20)</li>
+ *     <li>idleConnectionTimeout - seconds an unused connection is kept open (default 30)</li>
+ *     <li>connectTimeout - seconds to wait for a connection to be established or leased from the pool (default 20)</li>
+ *     <li>socketTimeout - seconds to wait for data on an open connection (default 120)</li>
+ * </ul>
+ * @since 2016.02
+ */
+public class HttpClientPool {
+    static private final Logger logger = NovaOpenStack.getLogger(HttpClientPool.class, "std");
+
+    static public final int DEFAULT_MAX_CONNECTIONS           = 50;
+    static public final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 20;
+    static public final int DEFAULT_IDLE_TIMEOUT_SECONDS      = 30;
+    static public final int DEFAULT_CONNECT_TIMEOUT_SECONDS   = 20;
+    static public final int DEFAULT_SOCKET_TIMEOUT_SECONDS    = 120;
+
+    static private final Map<String,HttpClientPool> pools = new HashMap<String, HttpClientPool>();
+
+    /**
+     * Looks up the pool matching the endpoint, proxy and SSL settings of the provider, creating it if needed, and
+     * registers one more reference to it. Every call must be balanced by a call to {@link #release()}.
+     * @param provider the provider for which a pool is needed
+     * @return the shared pool for the provider's endpoint
+     * @throws InternalException the provider has no context or endpoint
+     */
+    static public @Nonnull HttpClientPool acquire(@Nonnull NovaOpenStack provider) throws InternalException {
+        ProviderContext ctx = provider.getContext();
+
+        if( ctx == null ) {
+            throw new InternalException("No context was defined for this request");
+        }
+        String endpoint = ctx.getCloud().getEndpoint();
+
+        if( endpoint == null ) {
+            throw new InternalException("No cloud endpoint was defined");
+        }
+        Properties p = ctx.getCustomProperties();
+        String proxyHost = (p == null ? null : p.getProperty("proxyHost"));
+        String proxyPort = (p == null ? null : p.getProperty("proxyPort"));
+        boolean insecure = provider.isInsecure();
+        int connectTimeout = getInt(p, "connectTimeout", DEFAULT_CONNECT_TIMEOUT_SECONDS);
+        int socketTimeout = getInt(p, "socketTimeout", DEFAULT_SOCKET_TIMEOUT_SECONDS);
+        String key = toHost(endpoint) + "|" + proxyHost + ":" + proxyPort + "|" + insecure + "|" + connectTimeout + "/" + socketTimeout;
+
+        synchronized( pools ) {
+            HttpClientPool pool = pools.get(key);
+
+            if( pool == null ) {
+                pool = new HttpClientPool(key, endpoint.startsWith("https"), proxyHost, proxyPort, insecure,
+                        getInt(p, "maxConnections", DEFAULT_MAX_CONNECTIONS),
+                        getInt(p, "maxConnectionsPerRoute", DEFAULT_MAX_CONNECTIONS_PER_ROUTE),
+                        getInt(p, "idleConnectionTimeout", DEFAULT_IDLE_TIMEOUT_SECONDS), connectTimeout, socketTimeout);
+                pools.put(key, pool);
+            }
+            pool.references++;
+            return pool;
+        }
+    }
+
+    static private int getInt(@Nullable Properties p, @Nonnull String name, int def) {
+        String value = (p == null ? null : p.getProperty(name));
+
+        if( value == null || value.trim().length() < 1 ) {
+            return def;
+        }
+        try {
+            int i = Integer.parseInt(value.trim());
+
+            return (i > 0 ? i : def);
+        }
+        catch( NumberFormatException e ) {
+            logger.warn("Ignoring invalid value for " + name + ": " + value);
+            return def;
+        }
+    }
+
+    static private @Nonnull String toHost(@Nonnull String endpoint) {
+        if( endpoint.startsWith("ks:") || endpoint.startsWith("st:") ) {
+            endpoint = endpoint.substring(3);
+        }
+        try {
+            String host = new URI(endpoint).getHost();
+
+            return (host == null ? endpoint : host);
+        }
+        catch( URISyntaxException e ) {
+            return endpoint;
+        }
+    }
+
+    private final DefaultHttpClient              client;
+    private final ScheduledExecutorService       evictor;
+    private final String                         key;
+    private final PoolingClientConnectionManager manager;
+    private int                                  references;
+
+    private HttpClientPool(@Nonnull String key, boolean ssl, @Nullable String proxyHost, @Nullable String proxyPort, boolean insecure, @Nonnegative int maxTotal, @Nonnegative int maxPerRoute, @Nonnegative final int idleSeconds, @Nonnegative int connectTimeout, @Nonnegative int socketTimeout) {
+        this.key = key;
+
+        SchemeRegistry registry = SchemeRegistryFactory.createDefault();
+
+        if( insecure ) {
+            try {
+                registry.register(new Scheme("https", 443, new SSLSocketFactory(new TrustStrategy() {
+
+                    public boolean isTrusted(X509Certificate[] x509Certificates, String s) throws CertificateException {
+                        return true;
+                    }
+                }, SSLSocketFactory.ALLOW_ALL_HOSTNAME_VERIFIER)));
+            }
+            catch( Throwable t ) {
+                logger.error("Unable to register an insecure SSL socket factory: " + t.getMessage(), t);
+            }
+        }
+        manager = new PoolingClientConnectionManager(registry);
+        manager.setMaxTotal(maxTotal);
+        manager.setDefaultMaxPerRoute(Math.min(maxPerRoute, maxTotal));
+
+        HttpParams params = new BasicHttpParams();
+
+        HttpProtocolParams.setVersion(params, HttpVersion.HTTP_1_1);
+        //noinspection deprecation
+        HttpProtocolParams.setContentCharset(params, HTTP.UTF_8);
+        HttpProtocolParams.setUserAgent(params, "");
+        HttpConnectionParams.setConnectionTimeout(params, connectTimeout * 1000);
+        HttpConnectionParams.setSoTimeout(params, socketTimeout * 1000);
+        params.setLongParameter(ClientPNames.CONN_MANAGER_TIMEOUT, connectTimeout * 1000L);
+        if( proxyHost != null ) {
+            int port = 0;
+
+            if( proxyPort != null && proxyPort.length() > 0 ) {
+                port = Integer.parseInt(proxyPort);
+            }
+            params.setParameter(ConnRoutePNames.DEFAULT_PROXY, new HttpHost(proxyHost, port, ssl ? "https" : "http"));
+        }
+        client = new DefaultHttpClient(manager, params);
+        evictor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(@Nonnull Runnable r) {
+                Thread t = new Thread(r, "OpenStack HTTP connection evictor " + HttpClientPool.this.key);
+
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        evictor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                manager.closeExpiredConnections();
+                manager.closeIdleConnections(idleSeconds, TimeUnit.SECONDS);
+            }
+        }, idleSeconds, idleSeconds, TimeUnit.SECONDS);
+        if( logger.isDebugEnabled() ) {
+            logger.debug("Created HTTP connection pool for " + key + " (max=" + maxTotal + ", perRoute=" + maxPerRoute + ", idle=" + idleSeconds + "s, connect=" + connectTimeout + "s, socket=" + socketTimeout + "s)");
+        }
+    }
+
+    /**
+     * @return a thread-safe client backed by this pool; callers must not shut down its connection manager
+     */
+    public @Nonnull HttpClient getClient() {
+        return client;
+    }
+
+    /**
+     * Drops one reference to this pool, closing all of its connections when no provider is using it any longer.
+     */
+    public void release() {
+        synchronized( pools ) {
+            if( --references > 0 ) {
+                return;
+            }
+            pools.remove(key);
+        }
+        evictor.shutdownNow();
+        manager.shutdown();
+        if( logger.isDebugEnabled() ) {
+            logger.debug("Closed HTTP connection pool for " + key);
+        }
+    }
+}
@@ -53,7 +53,7 @@ public class NovaException extends CloudException {
                 if( code == 400 && ob.has("badRequest") ) {
                     ob = ob.getJSONObject("badRequest");
                 }
-                if( code == 413 && ob.has("overLimit") ) {
+                if( (code == 413 || code == 429) && ob.has("overLimit") ) {
                     ob = ob.getJSONObject("overLimit");
                 }
                 if( ob.has("message") ) {
@@ -87,7 +87,7 @@ public class NovaException extends CloudException {
                 }
                 String t = items.message.toLowerCase().trim();
 
-                if( code == 413 ) {
+                if( code == 413 || code == 429 ) {
                     items.type = CloudErrorType.THROTTLING;
                 }
                 else if( t.startsWith("addresslimitexceeded") || t.startsWith("ramlimitexceeded")) {
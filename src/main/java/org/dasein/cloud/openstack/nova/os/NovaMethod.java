@@ -22,10 +22,6 @@ package org.dasein.cloud.openstack.nova.os;
 import org.apache.http.HttpStatus;
 import org.dasein.cloud.*;
 import org.dasein.cloud.openstack.nova.os.ext.hp.cdn.HPCDN;
-import org.dasein.cloud.util.Cache;
-import org.dasein.cloud.util.CacheLevel;
-import org.dasein.util.uom.time.Day;
-import org.dasein.util.uom.time.TimePeriod;
 import org.json.JSONException;
 import org.json.JSONObject;
 
@@ -33,6 +29,8 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
 
 import org.dasein.cloud.openstack.nova.os.*;
 
@@ -50,10 +48,13 @@ public class NovaMethod extends AbstractMethod {
             delete(context.getAuthToken(), endpoint, resource + "/" + resourceId);
         }
         catch (NovaException ex) {
-            if (ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED) {
-                Cache<AuthenticationContext> cache = Cache.getInstance(provider, "authenticationContext", AuthenticationContext.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Day>(1, TimePeriod.DAY));
-                cache.clear();
-                deleteServers(resource, resourceId);
+            if( ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED && beginAuthenticationRetry(context) ) {
+                try {
+                    deleteServers(resource, resourceId);
+                }
+                finally {
+                    endAuthenticationRetry();
+                }
             }
             else {
                 throw ex;
@@ -75,10 +76,13 @@ public class NovaMethod extends AbstractMethod {
             delete(context.getAuthToken(), endpoint, resource + "/" + resourceId);
         }
         catch (NovaException ex) {
-            if (ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED) {
-                Cache<AuthenticationContext> cache = Cache.getInstance(provider, "authenticationContext", AuthenticationContext.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Day>(1, TimePeriod.DAY));
-                cache.clear();
-                deleteNetworks(resource, resourceId);
+            if( ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED && beginAuthenticationRetry(context) ) {
+                try {
+                    deleteNetworks(resource, resourceId);
+                }
+                finally {
+                    endAuthenticationRetry();
+                }
             }
             else {
                 throw ex;
@@ -112,10 +116,13 @@ public class NovaMethod extends AbstractMethod {
             }
         }
         catch (NovaException ex) {
-            if (ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED) {
-                Cache<AuthenticationContext> cache = Cache.getInstance(provider, "authenticationContext", AuthenticationContext.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Day>(1, TimePeriod.DAY));
-                cache.clear();
-                return getPorts(resource, resourceId);
+            if( ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED && beginAuthenticationRetry(context) ) {
+                try {
+                    return getPorts(resource, resourceId);
+                }
+                finally {
+                    endAuthenticationRetry();
+                }
             }
             else {
                 throw ex;
@@ -155,10 +162,13 @@ public class NovaMethod extends AbstractMethod {
             }
         }
         catch (NovaException ex) {
-            if (ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED) {
-                Cache<AuthenticationContext> cache = Cache.getInstance(provider, "authenticationContext", AuthenticationContext.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Day>(1, TimePeriod.DAY));
-                cache.clear();
-                return getServers(resource, resourceId, suffix);
+            if( ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED && beginAuthenticationRetry(context) ) {
+                try {
+                    return getServers(resource, resourceId, suffix);
+                }
+                finally {
+                    endAuthenticationRetry();
+                }
             }
             else {
                 throw ex;
@@ -166,6 +176,59 @@ public class NovaMethod extends AbstractMethod {
         }
     }
 
+    /**
+     * Lists compute resources, handing each element of the response to the handler as it is read off the wire
+     * rather than building the whole response in memory.
+     * @param resource the collection to list, such as /servers
+     * @param suffix true to list the detailed representation
+     * @param query an optional query string, including the leading '?'
+     * @param element the name of the array holding the elements in the response, such as servers
+     * @param handler the recipient of the elements
+     * @return the remaining top-level members of the response, such as servers_links, or null if there is no such collection
+     */
+    public @Nullable JSONObject getServers(@Nonnull final String resource, final boolean suffix, @Nullable final String query, @Nonnull final String element, @Nonnull final ElementHandler handler) throws CloudException, InternalException {
+        AuthenticationContext context = getAuthenticationContext();
+        String endpoint = context.getComputeUrl();
+
+        if( endpoint == null ) {
+            throw new InternalException("No compute URL has been established in " + context.getMyRegion());
+        }
+        String resourceUri = (suffix ? resource + "/detail" : resource);
+
+        if( query != null ) {
+            resourceUri += query;
+        }
+        try {
+            return getList(context.getAuthToken(), endpoint, resourceUri, element, handler);
+        }
+        catch (NovaException ex) {
+            if( ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED && beginAuthenticationRetry(context) ) {
+                try {
+                    return getServers(resource, suffix, query, element, handler);
+                }
+                finally {
+                    endAuthenticationRetry();
+                }
+            }
+            else {
+                throw ex;
+            }
+        }
+    }
+
+    /**
+     * Asynchronous counterpart of {@link #getServers(String, String, boolean)}; errors are reported through the
+     * returned future.
+     */
+    public @Nonnull Future<JSONObject> getServersAsync(@Nonnull final String resource, @Nullable final String resourceId, final boolean suffix) {
+        return submit(new Callable<JSONObject>() {
+            @Override
+            public JSONObject call() throws CloudException, InternalException {
+                return getServers(resource, resourceId, suffix);
+            }
+        });
+    }
+
     public @Nullable JSONObject getNetworks(@Nonnull final String resource, @Nullable final String resourceId, final boolean suffix) throws CloudException, InternalException {
         return getNetworks(resource, resourceId, suffix, null);
     }
@@ -204,10 +267,13 @@ public class NovaMethod extends AbstractMethod {
             }
         }
         catch (NovaException ex) {
-            if (ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED) {
-                Cache<AuthenticationContext> cache = Cache.getInstance(provider, "authenticationContext", AuthenticationContext.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Day>(1, TimePeriod.DAY));
-                cache.clear();
-                return getNetworks(resource, resourceId, suffix, query);
+            if( ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED && beginAuthenticationRetry(context) ) {
+                try {
+                    return getNetworks(resource, resourceId, suffix, query);
+                }
+                finally {
+                    endAuthenticationRetry();
+                }
             }
             else {
                 throw ex;
@@ -215,6 +281,19 @@ public class NovaMethod extends AbstractMethod {
         }
     }
 
+    /**
+     * Asynchronous counterpart of {@link #getNetworks(String, String, boolean, String)}; errors are reported
+     * through the returned future.
+     */
+    public @Nonnull Future<JSONObject> getNetworksAsync(@Nonnull final String resource, @Nullable final String resourceId, final boolean suffix, @Nullable final String query) {
+        return submit(new Callable<JSONObject>() {
+            @Override
+            public JSONObject call() throws CloudException, InternalException {
+                return getNetworks(resource, resourceId, suffix, query);
+            }
+        });
+    }
+
     public @Nullable String postServersForString(@Nonnull final String resource, @Nullable final String resourceId, @Nonnull final JSONObject body, final boolean suffix) throws CloudException, InternalException {
         AuthenticationContext context = getAuthenticationContext();
 
@@ -231,10 +310,13 @@ public class NovaMethod extends AbstractMethod {
             return postString(context.getAuthToken(), computeEndpoint, resourceUri, body.toString());
         }
         catch (NovaException ex) {
-            if (ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED) {
-                Cache<AuthenticationContext> cache = Cache.getInstance(provider, "authenticationContext", AuthenticationContext.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Day>(1, TimePeriod.DAY));
-                cache.clear();
-                return postServersForString(resource, resourceId, body, suffix);
+            if( ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED && beginAuthenticationRetry(context) ) {
+                try {
+                    return postServersForString(resource, resourceId, body, suffix);
+                }
+                finally {
+                    endAuthenticationRetry();
+                }
             }
             else {
                 throw ex;
@@ -268,10 +350,13 @@ public class NovaMethod extends AbstractMethod {
             }
         }
         catch (NovaException ex) {
-            if (ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED) {
-                Cache<AuthenticationContext> cache = Cache.getInstance(provider, "authenticationContext", AuthenticationContext.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Day>(1, TimePeriod.DAY));
-                cache.clear();
-                return postServers(resource, resourceId, body, suffix);
+            if( ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED && beginAuthenticationRetry(context) ) {
+                try {
+                    return postServers(resource, resourceId, body, suffix);
+                }
+                finally {
+                    endAuthenticationRetry();
+                }
             }
             else {
                 throw ex;
@@ -279,6 +364,19 @@ public class NovaMethod extends AbstractMethod {
         }
     }
 
+    /**
+     * Asynchronous counterpart of {@link #postServers(String, String, JSONObject, boolean)}; errors are reported
+     * through the returned future.
+     */
+    public @Nonnull Future<JSONObject> postServersAsync(@Nonnull final String resource, @Nullable final String resourceId, @Nonnull final JSONObject body, final boolean suffix) {
+        return submit(new Callable<JSONObject>() {
+            @Override
+            public JSONObject call() throws CloudException, InternalException {
+                return postServers(resource, resourceId, body, suffix);
+            }
+        });
+    }
+
     public @Nullable JSONObject postNetworks(@Nonnull final String resource, @Nullable final String resourceId, @Nonnull final JSONObject body, @Nullable final String action) throws CloudException, InternalException {
         AuthenticationContext context = getAuthenticationContext();
 
@@ -309,10 +407,13 @@ public class NovaMethod extends AbstractMethod {
             }
         }
         catch (NovaException ex) {
-            if (ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED) {
-                Cache<AuthenticationContext> cache = Cache.getInstance(provider, "authenticationContext", AuthenticationContext.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Day>(1, TimePeriod.DAY));
-                cache.clear();
-                return postNetworks(resource, resourceId, body, action);
+            if( ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED && beginAuthenticationRetry(context) ) {
+                try {
+                    return postNetworks(resource, resourceId, body, action);
+                }
+                finally {
+                    endAuthenticationRetry();
+                }
             }
             else {
                 throw ex;
@@ -350,10 +451,13 @@ public class NovaMethod extends AbstractMethod {
             }
         }
         catch (NovaException ex) {
-            if (ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED) {
-                Cache<AuthenticationContext> cache = Cache.getInstance(provider, "authenticationContext", AuthenticationContext.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Day>(1, TimePeriod.DAY));
-                cache.clear();
-                return putNetworks(resource, resourceId, body, action);
+            if( ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED && beginAuthenticationRetry(context) ) {
+                try {
+                    return putNetworks(resource, resourceId, body, action);
+                }
+                finally {
+                    endAuthenticationRetry();
+                }
             }
             else {
                 throw ex;
@@ -376,10 +480,13 @@ public class NovaMethod extends AbstractMethod {
             return getString(context.getAuthToken(), endpoint, resourceId == null ? "" : ("/" + resourceId));
         }
         catch (NovaException ex) {
-            if (ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED) {
-                Cache<AuthenticationContext> cache = Cache.getInstance(provider, "authenticationContext", AuthenticationContext.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Day>(1, TimePeriod.DAY));
-                cache.clear();
-                return getHPCDN(resourceId);
+            if( ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED && beginAuthenticationRetry(context) ) {
+                try {
+                    return getHPCDN(resourceId);
+                }
+                finally {
+                    endAuthenticationRetry();
+                }
             }
             else {
                 throw ex;
@@ -408,10 +515,13 @@ public class NovaMethod extends AbstractMethod {
             }
         }
         catch (NovaException ex) {
-            if (ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED) {
-                Cache<AuthenticationContext> cache = Cache.getInstance(provider, "authenticationContext", AuthenticationContext.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Day>(1, TimePeriod.DAY));
-                cache.clear();
-                putHPCDN(container);
+            if( ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED && beginAuthenticationRetry(context) ) {
+                try {
+                    putHPCDN(container);
+                }
+                finally {
+                    endAuthenticationRetry();
+                }
             }
             else {
                 throw ex;
@@ -433,10 +543,13 @@ public class NovaMethod extends AbstractMethod {
             postHeaders(context.getAuthToken(), endpoint, "/" + container, headers);
         }
         catch (NovaException ex) {
-            if (ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED) {
-                Cache<AuthenticationContext> cache = Cache.getInstance(provider, "authenticationContext", AuthenticationContext.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Day>(1, TimePeriod.DAY));
-                cache.clear();
-                postHPCDN(container, headers);
+            if( ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED && beginAuthenticationRetry(context) ) {
+                try {
+                    postHPCDN(container, headers);
+                }
+                finally {
+                    endAuthenticationRetry();
+                }
             }
             else {
                 throw ex;
@@ -455,10 +568,13 @@ public class NovaMethod extends AbstractMethod {
             delete(context.getAuthToken(), endpoint, "/" + container);
         }
         catch (NovaException ex) {
-            if (ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED) {
-                Cache<AuthenticationContext> cache = Cache.getInstance(provider, "authenticationContext", AuthenticationContext.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Day>(1, TimePeriod.DAY));
-                cache.clear();
-                deleteHPCDN(container);
+            if( ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED && beginAuthenticationRetry(context) ) {
+                try {
+                    deleteHPCDN(container);
+                }
+                finally {
+                    endAuthenticationRetry();
+                }
             }
             else {
                 throw ex;
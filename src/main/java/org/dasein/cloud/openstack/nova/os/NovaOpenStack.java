@@ -23,9 +23,25 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
@@ -94,48 +110,357 @@ public class NovaOpenStack extends AbstractCloud {
     }
     
     public NovaOpenStack() { }
+
+    private transient HttpClientPool connectionPool;
+
+    /**
+     * Provides the keep-alive connection pool used for all HTTP traffic of this provider. The pool is shared with
+     * other providers talking to the same endpoint and is released when this provider is closed.
+     * @return the connection pool for this provider's endpoint
+     * @throws InternalException no context or endpoint has been defined
+     */
+    public synchronized @Nonnull HttpClientPool getConnectionPool() throws InternalException {
+        if( connectionPool == null ) {
+            connectionPool = HttpClientPool.acquire(this);
+        }
+        return connectionPool;
+    }
+
+    static public final int DEFAULT_ASYNC_THREADS = 20;
+
+    private transient ExecutorService executor;
+
+    /**
+     * Provides the executor on which asynchronous requests and concurrent operations of this provider run. The
+     * number of worker threads is set by the custom property maxAsyncRequests (default 20) and should not exceed the
+     * connection pool size; requests beyond that are queued rather than each holding a thread. When the custom
+     * property virtualThreads is true and the JVM supports them, each task runs on its own virtual thread instead and
+     * concurrency is bounded by the connection pool alone. The executor is shut down when this provider is closed.
+     * @return the executor for asynchronous work of this provider
+     * @throws IllegalStateException the provider has been closed
+     */
+    public synchronized @Nonnull ExecutorService getExecutor() {
+        if( closed ) {
+            throw new IllegalStateException("The provider has been closed");
+        }
+        if( executor == null ) {
+            ProviderContext ctx = getContext();
+            Properties p = (ctx == null ? null : ctx.getCustomProperties());
+
+            if( p != null && "true".equalsIgnoreCase(p.getProperty("virtualThreads")) ) {
+                executor = newVirtualThreadExecutor();
+                if( executor != null ) {
+                    return executor;
+                }
+            }
+            String value = (p == null ? null : p.getProperty("maxAsyncRequests"));
+            int threads = DEFAULT_ASYNC_THREADS;
+
+            if( value != null ) {
+                try {
+                    threads = Math.max(1, Integer.parseInt(value.trim()));
+                }
+                catch( NumberFormatException e ) {
+                    getLogger(NovaOpenStack.class, "std").warn("Ignoring invalid value for maxAsyncRequests: " + value);
+                }
+            }
+            final String name = getProviderName() + " worker";
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger();
+
+                @Override
+                public Thread newThread(@Nonnull Runnable r) {
+                    Thread t = new Thread(r, name + " " + count.incrementAndGet());
+
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+
+            pool.allowCoreThreadTimeOut(true);
+            executor = pool;
+        }
+        return executor;
+    }
+
+    private transient ScheduledExecutorService scheduler;
+
+    /**
+     * Provides the timer on which delayed work of this provider, such as sending a hedged request, is scheduled.
+     * Scheduled tasks should only hand work over to {@link #getExecutor()} so that the single timer thread is never
+     * held up. The timer is shut down, dropping any pending tasks, when this provider is closed.
+     * @return the timer for delayed work of this provider
+     * @throws IllegalStateException the provider has been closed
+     */
+    public synchronized @Nonnull ScheduledExecutorService getScheduler() {
+        if( closed ) {
+            throw new IllegalStateException("The provider has been closed");
+        }
+        if( scheduler == null ) {
+            final String name = getProviderName() + " timer";
+
+            scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(@Nonnull Runnable r) {
+                    Thread t = new Thread(r, name);
+
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+        }
+        return scheduler;
+    }
+
+    /**
+     * Looks the virtual thread executor up reflectively so that the provider still builds and runs on JVMs that
+     * predate virtual threads.
+     * @return an executor starting a virtual thread per task, or null if the JVM does not support them
+     */
+    static private @Nullable ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch( Exception e ) {
+            getLogger(NovaOpenStack.class, "std").warn("Virtual threads are not supported by this JVM, using a thread pool instead");
+            return null;
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            synchronized( this ) {
+                closed = true;
+                if( renewal != null ) {
+                    renewal.cancel(false);
+                    renewal = null;
+                }
+                if( scheduler != null ) {
+                    scheduler.shutdownNow();
+                    scheduler = null;
+                }
+                if( executor != null ) {
+                    executor.shutdown();
+                    executor = null;
+                }
+                if( connectionPool != null ) {
+                    connectionPool.release();
+                    connectionPool = null;
+                }
+            }
+        }
+        finally {
+            super.close();
+        }
+    }
     
-    public synchronized @Nonnull AuthenticationContext getAuthenticationContext() throws CloudException, InternalException {
+    /**
+     * The authentication context most recently obtained by this provider along with the provider context it belongs
+     * to, published as one immutable pair so that readers need no lock.
+     */
+    static private final class CurrentAuthentication {
+        private final AuthenticationContext authenticationContext;
+        private final ProviderContext       providerContext;
+
+        private CurrentAuthentication(@Nonnull ProviderContext providerContext, @Nonnull AuthenticationContext authenticationContext) {
+            this.providerContext = providerContext;
+            this.authenticationContext = authenticationContext;
+        }
+    }
+
+    private transient volatile CurrentAuthentication currentAuthentication;
+
+    public @Nonnull AuthenticationContext getAuthenticationContext() throws CloudException, InternalException {
+        ProviderContext ctx = getContext();
+        CurrentAuthentication current = currentAuthentication;
+
+        if( current != null && current.providerContext == ctx && !current.authenticationContext.isExpired() ) {
+            if( !authenticationUsed ) {
+                authenticationUsed = true;
+            }
+            return current.authenticationContext;
+        }
         APITrace.begin(this, "Cloud.getAuthenticationContext");
         try {
-            Cache<AuthenticationContext> cache = Cache.getInstance(this, "authenticationContext", AuthenticationContext.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Day>(1, TimePeriod.DAY));
-            ProviderContext ctx = getContext();
-
             if( ctx == null ) {
                 throw new InternalException("No context was set for this request");
             }
-            Iterable<AuthenticationContext> current = cache.get(ctx);
-            AuthenticationContext authenticationContext = null;
-
-            NovaMethod method = new NovaMethod(this);
+            AuthenticationContext authenticationContext = getCachedAuthenticationContext(ctx);
 
-            if( current != null ) {
-                authenticationContext = current.iterator().next();
+            if( authenticationContext == null ) {
+                authenticationContext = refreshAuthenticationContext(null);
             }
             else {
-                try {
-                    authenticationContext = method.authenticate();
-                }
-                finally {
-                    if( authenticationContext == null ) {
-                        NovaException.ExceptionItems items = new NovaException.ExceptionItems();
-
-                        items.code = HttpStatus.SC_UNAUTHORIZED;
-                        items.type = CloudErrorType.AUTHENTICATION;
-                        items.message = "unauthorized";
-                        items.details = "The API keys failed to authenticate with the specified endpoint.";
-                        throw new NovaException(items);
-                    }
-                    cache.put(ctx, Collections.singletonList(authenticationContext));
-                    return authenticationContext;
-                }
+                currentAuthentication = new CurrentAuthentication(ctx, authenticationContext);
             }
+            authenticationUsed = true;
             return authenticationContext;
         }
         finally {
             APITrace.end();
         }
     }
+
+    static private final ConcurrentHashMap<String,FutureTask<AuthenticationContext>> authenticationsInProgress = new ConcurrentHashMap<String, FutureTask<AuthenticationContext>>();
+
+    /**
+     * Replaces the cached authentication context for the current region and account with a freshly authenticated one.
+     * Only one thread authenticates for a given region and account at a time; concurrent callers wait for and share
+     * its result. If the token has already been replaced since the caller obtained <code>stale</code>, the current
+     * context is returned without authenticating again.
+     * @param stale the context whose token was rejected, or null if no context is known yet
+     * @return a valid authentication context
+     * @throws CloudException the cloud rejected the credentials
+     * @throws InternalException no context was set or authentication was interrupted
+     */
+    public @Nonnull AuthenticationContext refreshAuthenticationContext(@Nullable AuthenticationContext stale) throws CloudException, InternalException {
+        final ProviderContext ctx = getContext();
+
+        if( ctx == null ) {
+            throw new InternalException("No context was set for this request");
+        }
+        AuthenticationContext current = getCachedAuthenticationContext(ctx);
+
+        if( current != null && (stale == null || !sameToken(current, stale)) ) {
+            currentAuthentication = new CurrentAuthentication(ctx, current);
+            return current;
+        }
+        String key = ctx.getCloud().getEndpoint() + "|" + ctx.getAccountNumber() + "|" + ctx.getRegionId();
+        FutureTask<AuthenticationContext> task = new FutureTask<AuthenticationContext>(new Callable<AuthenticationContext>() {
+            @Override
+            public AuthenticationContext call() throws CloudException, InternalException {
+                AuthenticationContext authenticationContext = new NovaMethod(NovaOpenStack.this).authenticate();
+
+                if( authenticationContext == null ) {
+                    NovaException.ExceptionItems items = new NovaException.ExceptionItems();
+
+                    items.code = HttpStatus.SC_UNAUTHORIZED;
+                    items.type = CloudErrorType.AUTHENTICATION;
+                    items.message = "unauthorized";
+                    items.details = "The API keys failed to authenticate with the specified endpoint.";
+                    throw new NovaException(items);
+                }
+                getAuthenticationCache().put(ctx, Collections.singletonList(authenticationContext));
+                scheduleRenewal(authenticationContext);
+                return authenticationContext;
+            }
+        });
+        FutureTask<AuthenticationContext> inProgress = authenticationsInProgress.putIfAbsent(key, task);
+
+        if( inProgress == null ) {
+            try {
+                task.run();
+            }
+            finally {
+                authenticationsInProgress.remove(key, task);
+            }
+            inProgress = task;
+        }
+        try {
+            AuthenticationContext authenticationContext = inProgress.get();
+
+            currentAuthentication = new CurrentAuthentication(ctx, authenticationContext);
+            return authenticationContext;
+        }
+        catch( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new InternalException(e);
+        }
+        catch( ExecutionException e ) {
+            Throwable cause = e.getCause();
+
+            if( cause instanceof CloudException ) {
+                throw ( CloudException ) cause;
+            }
+            if( cause instanceof InternalException ) {
+                throw ( InternalException ) cause;
+            }
+            if( cause instanceof RuntimeException ) {
+                throw ( RuntimeException ) cause;
+            }
+            throw new InternalException(cause);
+        }
+    }
+
+    private transient volatile boolean     authenticationUsed;
+    private transient boolean              closed;
+    private transient ScheduledFuture<?>   renewal;
+
+    /**
+     * Arranges for the token to be replaced before it expires so that requests never wait on authentication.
+     * A renewal only happens if this provider has used the token since it was issued; an idle provider lets its token
+     * lapse and authenticates again on its next request.
+     * @param current the context that was just authenticated
+     */
+    private synchronized void scheduleRenewal(@Nonnull final AuthenticationContext current) {
+        if( renewal != null ) {
+            renewal.cancel(false);
+            renewal = null;
+        }
+        long renewAt = current.getRenewalTime();
+
+        if( closed || renewAt <= 0L ) {
+            return;
+        }
+        authenticationUsed = false;
+        final Runnable renew = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    refreshAuthenticationContext(current);
+                }
+                catch( Throwable t ) {
+                    getLogger(NovaOpenStack.class, "std").warn("Unable to renew authentication token ahead of expiry: " + t.getMessage());
+                }
+            }
+        };
+
+        renewal = getScheduler().schedule(new Runnable() {
+            @Override
+            public void run() {
+                if( !authenticationUsed ) {
+                    return;
+                }
+                try {
+                    getExecutor().execute(renew);
+                }
+                catch( IllegalStateException ignore ) {
+                    // the provider was closed in the meantime
+                }
+                catch( RejectedExecutionException ignore ) {
+                    // the provider was closed in the meantime
+                }
+            }
+        }, Math.max(0L, renewAt - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+    }
+
+    private @Nonnull Cache<AuthenticationContext> getAuthenticationCache() {
+        return Cache.getInstance(this, "authenticationContext", AuthenticationContext.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Day>(1, TimePeriod.DAY));
+    }
+
+    private @Nullable AuthenticationContext getCachedAuthenticationContext(@Nonnull ProviderContext ctx) {
+        Iterable<AuthenticationContext> current = getAuthenticationCache().get(ctx);
+
+        if( current != null ) {
+            Iterator<AuthenticationContext> it = current.iterator();
+
+            if( it.hasNext() ) {
+                AuthenticationContext authenticationContext = it.next();
+
+                if( !authenticationContext.isExpired() ) {
+                    return authenticationContext;
+                }
+            }
+        }
+        return null;
+    }
+
+    static private boolean sameToken(@Nonnull AuthenticationContext a, @Nonnull AuthenticationContext b) {
+        String token = a.getAuthToken();
+
+        return (token == null ? b.getAuthToken() == null : token.equals(b.getAuthToken()));
+    }
     
     @Override
     public @Nonnull String getCloudName() {
@@ -215,92 +540,328 @@ public class NovaOpenStack extends AbstractCloud {
     }
     
     public @Nonnegative int getMajorVersion() throws CloudException, InternalException {
-        AuthenticationContext ctx = getAuthenticationContext();
-        String endpoint = ctx.getComputeUrl();
-        
-        if( endpoint == null ) {
-            endpoint = ctx.getStorageUrl();
-            if( endpoint == null ) {
-                return 1;
+        return getAuthenticationContext().getMajorVersion();
+    }
+    
+    public @Nonnegative int getMinorVersion() throws CloudException, InternalException {
+        return getAuthenticationContext().getMinorVersion();
+    }
+
+    @Override
+    public @Nullable NovaNetworkServices getNetworkServices() {
+        return new NovaNetworkServices(this);
+    }
+
+    public boolean isHP() {
+        return getProviderName().equalsIgnoreCase("hp");
+    }
+
+    /**
+     * @return true if the custom property compressResponses is set to true, in which case GET responses are requested
+     * gzip or deflate encoded
+     */
+    public boolean isCompressionEnabled() {
+        ProviderContext ctx = getContext();
+        Properties p = (ctx == null ? null : ctx.getCustomProperties());
+        String value = (p == null ? null : p.getProperty("compressResponses"));
+
+        return (value != null && value.equalsIgnoreCase("true"));
+    }
+
+    /**
+     * @return false if the custom property responseCache is set to false; otherwise GET responses carrying an ETag or
+     * Last-Modified header are kept in the {@link ResponseCache} and revalidated with conditional requests
+     */
+    public boolean isResponseCacheEnabled() {
+        ProviderContext ctx = getContext();
+        Properties p = (ctx == null ? null : ctx.getCustomProperties());
+        String value = (p == null ? null : p.getProperty("responseCache"));
+
+        return (value == null || !value.equalsIgnoreCase("false"));
+    }
+
+    /**
+     * Provides the cache for GET responses, sized in megabytes by the custom property responseCacheCapacity (16 by
+     * default). Providers configured with the same capacity share a cache.
+     * @return the response cache for this provider
+     */
+    public @Nonnull ResponseCache getResponseCache() {
+        ProviderContext ctx = getContext();
+        Properties p = (ctx == null ? null : ctx.getCustomProperties());
+        String value = (p == null ? null : p.getProperty("responseCacheCapacity"));
+
+        if( value != null ) {
+            try {
+                return ResponseCache.getInstance(Math.max(0L, Long.parseLong(value.trim())) * 1024L * 1024L);
+            }
+            catch( NumberFormatException e ) {
+                logger.warn("Ignoring invalid value for responseCacheCapacity: " + value);
             }
         }
-        while( endpoint.endsWith("/") && endpoint.length() > 1 ) {
-            endpoint = endpoint.substring(0,endpoint.length()-1);
+        return ResponseCache.getInstance();
+    }
+
+    /**
+     * Provides how long a cached response for the specified resource may be served without revalidation, as set in
+     * seconds by the custom property responseCacheTtl.&lt;service type&gt;.&lt;collection&gt;, for example
+     * responseCacheTtl.compute.flavors=300 or responseCacheTtl.image.images=300. The collection is the first element
+     * of the resource path. Resources without a property, such as servers, are always revalidated.
+     * @param endpoint the service endpoint the response came from
+     * @param resource the resource path beneath the endpoint
+     * @return the time to live in milliseconds, 0 if responses must always be revalidated
+     */
+    public @Nonnegative long getResponseCacheTtl(@Nonnull String endpoint, @Nonnull String resource) throws CloudException, InternalException {
+        ProviderContext ctx = getContext();
+        Properties p = (ctx == null ? null : ctx.getCustomProperties());
+
+        if( p == null || p.isEmpty() ) {
+            return 0L;
         }
-        String[] parts = endpoint.split("/");
-        int idx = parts.length-1;
-        
-        do {
-            endpoint = parts[idx];
-            while( !Character.isDigit(endpoint.charAt(0)) && endpoint.length() > 1 ) {
-                endpoint = endpoint.substring(1);
+        String service = getAuthenticationContext().getServiceType(endpoint);
+        String collection = toCollection(resource);
+
+        if( service == null || collection == null ) {
+            return 0L;
+        }
+        String name = "responseCacheTtl." + service + "." + collection;
+        String value = p.getProperty(name);
+
+        if( value != null ) {
+            try {
+                return Math.max(0L, Long.parseLong(value.trim()) * 1000L);
             }
-            if( Character.isDigit(endpoint.charAt(0)) ) {
-                int i = endpoint.indexOf('.');
-                
-                try {
-                    if( i == -1 ) {
-                        return Integer.parseInt(endpoint);
-                    }
-                    String[] d = endpoint.split("\\.");
+            catch( NumberFormatException e ) {
+                logger.warn("Ignoring invalid value for " + name + ": " + value);
+            }
+        }
+        return 0L;
+    }
 
-                    return Integer.parseInt(d[0]);
-                }
-                catch( NumberFormatException ignore ) {
-                    // ignore
-                }
+    /**
+     * @param resource a resource path such as /flavors/detail?limit=100
+     * @return the first element of the path, such as flavors, or null if the path is empty
+     */
+    static @Nullable String toCollection(@Nonnull String resource) {
+        int start = 0;
+
+        while( start < resource.length() && resource.charAt(start) == '/' ) {
+            start++;
+        }
+        int end = start;
+
+        while( end < resource.length() && resource.charAt(end) != '/' && resource.charAt(end) != '?' ) {
+            end++;
+        }
+        return (end > start ? resource.substring(start, end) : null);
+    }
+
+    /**
+     * @return the time budget in milliseconds for long-running operations such as launching or terminating a virtual
+     * machine, as set in seconds by the custom property operationTimeout, or 0 if only the built-in waits apply;
+     * a tighter {@link Deadline} set by the caller always takes precedence
+     */
+    public @Nonnegative long getOperationTimeout() {
+        ProviderContext ctx = getContext();
+        Properties p = (ctx == null ? null : ctx.getCustomProperties());
+        String value = (p == null ? null : p.getProperty("operationTimeout"));
+
+        if( value != null ) {
+            try {
+                return Math.max(0L, Long.parseLong(value.trim()) * 1000L);
+            }
+            catch( NumberFormatException e ) {
+                logger.warn("Ignoring invalid value for operationTimeout: " + value);
             }
-        } while( (idx--) > 0 );
-        return 1;
+        }
+        return 0L;
     }
-    
-    public @Nonnegative int getMinorVersion() throws CloudException, InternalException {
-        AuthenticationContext ctx = getAuthenticationContext();
-        String endpoint = ctx.getComputeUrl();
-        
-        if( endpoint == null ) {
-            endpoint = ctx.getStorageUrl();
-            if( endpoint == null ) {
-                return 1;
+
+    /**
+     * Provides the hedging policy for idempotent requests to the specified endpoint. Hedging is off unless the custom
+     * property hedgeRequests is true; hedgePercentile (default 95) sets the percentile of recent response times after
+     * which a duplicate request is sent and hedgeBudget (default 5) the largest percentage of requests that may be
+     * duplicated.
+     * @param endpoint the service endpoint the request is sent to
+     * @return the policy for that endpoint, or null if hedging is disabled
+     */
+    public @Nullable HedgePolicy getHedgePolicy(@Nonnull String endpoint) {
+        ProviderContext ctx = getContext();
+        Properties p = (ctx == null ? null : ctx.getCustomProperties());
+
+        if( p == null || !"true".equalsIgnoreCase(p.getProperty("hedgeRequests")) ) {
+            return null;
+        }
+        double percentile = 95.0;
+        double budget = 5.0;
+        String value = p.getProperty("hedgePercentile");
+
+        if( value != null ) {
+            try {
+                percentile = Double.parseDouble(value.trim());
+            }
+            catch( NumberFormatException e ) {
+                logger.warn("Ignoring invalid value for hedgePercentile: " + value);
             }
         }
-        while( endpoint.endsWith("/") && endpoint.length() > 1 ) {
-            endpoint = endpoint.substring(0,endpoint.length()-1);
+        value = p.getProperty("hedgeBudget");
+        if( value != null ) {
+            try {
+                budget = Double.parseDouble(value.trim());
+            }
+            catch( NumberFormatException e ) {
+                logger.warn("Ignoring invalid value for hedgeBudget: " + value);
+            }
         }
-        String[] parts = endpoint.split("/");
-        int idx = parts.length-1;
-        
-        do {
-            endpoint = parts[idx];
-            while( !Character.isDigit(endpoint.charAt(0)) && endpoint.length() > 1 ) {
-                endpoint = endpoint.substring(1);
+        return HedgePolicy.getInstance(endpoint, percentile, budget / 100.0);
+    }
+
+    /**
+     * Provides the circuit breaker guarding the specified service endpoint. The breaker opens after the number of
+     * consecutive failures set by the custom property circuitBreakerThreshold (default 5, 0 to disable) and stays open
+     * for circuitBreakerOpenSeconds (default 30) before letting a probe request through.
+     * @param endpoint the service endpoint the request is sent to
+     * @return the breaker for that endpoint, or null if circuit breaking is disabled
+     */
+    public @Nullable CircuitBreaker getCircuitBreaker(@Nonnull String endpoint) {
+        ProviderContext ctx = getContext();
+        Properties p = (ctx == null ? null : ctx.getCustomProperties());
+        int threshold = 5;
+        long openSeconds = 30L;
+
+        if( p != null ) {
+            String value = p.getProperty("circuitBreakerThreshold");
+
+            if( value != null ) {
+                try {
+                    threshold = Integer.parseInt(value.trim());
+                }
+                catch( NumberFormatException e ) {
+                    logger.warn("Ignoring invalid value for circuitBreakerThreshold: " + value);
+                }
             }
-            if( Character.isDigit(endpoint.charAt(0)) ) {
-                int i = endpoint.indexOf('.');
-                
+            value = p.getProperty("circuitBreakerOpenSeconds");
+            if( value != null ) {
                 try {
-                    if( i == -1 ) {
-                        return Integer.parseInt(endpoint);
-                    }
-                    String[] d = endpoint.split("\\.");
+                    openSeconds = Math.max(1L, Long.parseLong(value.trim()));
+                }
+                catch( NumberFormatException e ) {
+                    logger.warn("Ignoring invalid value for circuitBreakerOpenSeconds: " + value);
+                }
+            }
+        }
+        if( threshold < 1 ) {
+            return null;
+        }
+        return CircuitBreaker.getInstance(endpoint, threshold, openSeconds * 1000L);
+    }
 
-                    return Integer.parseInt(d[1]);
+    /**
+     * Provides the request rate limiter for the specified service and the current tenant. The steady rate is set by
+     * the custom properties rateLimit (requests per second, default unlimited) and rateLimitBurst; the limiter also
+     * pauses whenever the cloud answers 413 overLimit or 429 with a retry delay.
+     * @param endpoint the service endpoint the request is sent to
+     * @return the limiter shared by all requests to that service on behalf of the current tenant
+     */
+    public @Nonnull RateLimiter getRateLimiter(@Nonnull String endpoint) {
+        ProviderContext ctx = getContext();
+        Properties p = (ctx == null ? null : ctx.getCustomProperties());
+        double rate = 0.0;
+        int burst = 1;
+
+        if( p != null ) {
+            String value = p.getProperty("rateLimit");
+
+            if( value != null ) {
+                try {
+                    rate = Double.parseDouble(value.trim());
                 }
-                catch( NumberFormatException ignore ) {
-                    // ignore
+                catch( NumberFormatException e ) {
+                    logger.warn("Ignoring invalid value for rateLimit: " + value);
                 }
             }
-        } while( (idx--) > 0 );
-        return 1;
+            value = p.getProperty("rateLimitBurst");
+            burst = (int)Math.max(1, Math.ceil(rate));
+            if( value != null ) {
+                try {
+                    burst = Integer.parseInt(value.trim());
+                }
+                catch( NumberFormatException e ) {
+                    logger.warn("Ignoring invalid value for rateLimitBurst: " + value);
+                }
+            }
+        }
+        return RateLimiter.getInstance(getRateLimitKey(endpoint), rate, burst);
     }
 
-    @Override
-    public @Nullable NovaNetworkServices getNetworkServices() {
-        return new NovaNetworkServices(this);
+    /**
+     * @param endpoint the service endpoint the request is sent to
+     * @param verb the HTTP method of the request
+     * @return the limiter for requests with that verb to that service on behalf of the current tenant, or null if the
+     * cloud has not published a limit for the verb
+     */
+    public @Nullable RateLimiter getRateLimiter(@Nonnull String endpoint, @Nonnull String verb) {
+        return RateLimiter.find(getRateLimitKey(endpoint) + "|" + verb);
     }
 
-    public boolean isHP() {
-        return getProviderName().equalsIgnoreCase("hp");
+    /**
+     * Sets the rate at which requests with the specified verb may be sent to the specified service on behalf of the
+     * current tenant, typically from the limits the cloud publishes.
+     * @param endpoint the service endpoint
+     * @param verb the HTTP method the limit applies to
+     * @param permitsPerSecond the steady request rate
+     * @param burst the number of requests that may be sent at once after a quiet period
+     * @return the configured limiter
+     */
+    public @Nonnull RateLimiter configureRateLimit(@Nonnull String endpoint, @Nonnull String verb, double permitsPerSecond, @Nonnegative int burst) {
+        RateLimiter limiter = RateLimiter.getInstance(getRateLimitKey(endpoint) + "|" + verb, permitsPerSecond, burst);
+
+        limiter.setRate(permitsPerSecond, burst);
+        return limiter;
+    }
+
+    /**
+     * Called when the cloud rate limits a request to the specified service. For the compute service, this loads the
+     * limits Nova publishes in the background, if they are not already cached, so that throttling follows them.
+     * @param endpoint the service endpoint that rate limited the request
+     */
+    void rateLimited(@Nonnull String endpoint) {
+        try {
+            if( "compute".equals(getAuthenticationContext().getServiceType(endpoint)) ) {
+                getComputeServices().refreshLimitsInBackground();
+            }
+        }
+        catch( CloudException e ) {
+            logger.debug("Unable to identify the rate limited service: " + e.getMessage());
+        }
+        catch( InternalException e ) {
+            logger.debug("Unable to identify the rate limited service: " + e.getMessage());
+        }
+    }
+
+    private @Nonnull String getRateLimitKey(@Nonnull String endpoint) {
+        ProviderContext ctx = getContext();
+
+        return endpoint + "|" + (ctx == null ? null : ctx.getAccountNumber());
+    }
+
+    /**
+     * @return how long in milliseconds a request may wait for the rate limiter, including transparent retries after
+     * the cloud reported that a limit was hit, as set in seconds by the custom property rateLimitMaxWait (default 60)
+     */
+    public @Nonnegative long getRateLimitMaxWait() {
+        ProviderContext ctx = getContext();
+        Properties p = (ctx == null ? null : ctx.getCustomProperties());
+        String value = (p == null ? null : p.getProperty("rateLimitMaxWait"));
+
+        if( value != null ) {
+            try {
+                return Math.max(0L, Long.parseLong(value.trim()) * 1000L);
+            }
+            catch( NumberFormatException e ) {
+                logger.warn("Ignoring invalid value for rateLimitMaxWait: " + value);
+            }
+        }
+        return 60000L;
     }
 
     public boolean isInsecure() {
@@ -341,46 +902,129 @@ public class NovaOpenStack extends AbstractCloud {
         return (getMajorVersion() > 1 || getMinorVersion() > 0);
     }
     
+    /**
+     * Parses the timestamps found in OpenStack responses, such as 2012-06-18T14:47:02Z, 2012-06-18T14:47:02.123Z,
+     * 2014-05-07T12:06:13.681238, 2012-06-18T14:47:02+01:00 and 2012-06-16 19:41:29. Timestamps without a zone are
+     * in UTC. This method is thread-safe and allocates nothing for the formats above; anything else goes through a
+     * slower, more lenient fallback.
+     * @param time the timestamp to parse
+     * @return the timestamp in milliseconds since the epoch, or 0 if no timestamp was given
+     * @throws InternalException the timestamp is not in any recognized format
+     */
     static public long parseTimestamp(String time) throws InternalException {
-        if( time == null ) {
+        if( time == null || time.length() < 1 ) {
             return 0L;
         }
-        SimpleDateFormat fmt = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
-            
-        if( time.length() > 0 ) {
+        long millis = parseIsoTimestamp(time);
+
+        if( millis != Long.MIN_VALUE ) {
+            return millis;
+        }
+        for( String pattern : new String[] { "yyyy-MM-dd'T'HH:mm:ss", "yyyy-MM-dd HH:mm:ss" } ) {
+            SimpleDateFormat fmt = new SimpleDateFormat(pattern);
+
+            fmt.setTimeZone(TimeZone.getTimeZone("UTC"));
             try {
                 return fmt.parse(time).getTime();
-            } 
-            catch( ParseException e ) {
-                fmt = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'");
-                //2012-06-18T14:47:02
-                try {
-                    return fmt.parse(time).getTime();
+            }
+            catch( ParseException ignore ) {
+                // try the next one
+            }
+        }
+        throw new InternalException("Could not parse date: " + time);
+    }
+
+    /**
+     * @return the parsed time, or Long.MIN_VALUE if the text is not a strict ISO 8601 date and time
+     */
+    static private long parseIsoTimestamp(@Nonnull String time) {
+        int len = time.length();
+
+        if( len < 19 || time.charAt(4) != '-' || time.charAt(7) != '-' || (time.charAt(10) != 'T' && time.charAt(10) != ' ') || time.charAt(13) != ':' || time.charAt(16) != ':' ) {
+            return Long.MIN_VALUE;
+        }
+        int year = digits(time, 0, 4), month = digits(time, 5, 2), day = digits(time, 8, 2);
+        int hour = digits(time, 11, 2), minute = digits(time, 14, 2), second = digits(time, 17, 2);
+
+        if( year < 0 || month < 1 || month > 12 || day < 1 || day > 31 || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 60 ) {
+            return Long.MIN_VALUE;
+        }
+        int idx = 19, millis = 0;
+
+        if( idx < len && time.charAt(idx) == '.' ) {
+            int scale = 100;
+
+            idx++;
+            int start = idx;
+
+            while( idx < len && Character.isDigit(time.charAt(idx)) ) {
+                millis += (time.charAt(idx) - '0') * scale;
+                scale /= 10;
+                idx++;
+            }
+            if( idx == start ) {
+                return Long.MIN_VALUE;
+            }
+        }
+        int offsetMinutes = 0;
+
+        if( idx < len ) {
+            char c = time.charAt(idx);
+
+            if( c == 'Z' && idx == len - 1 ) {
+                idx++;
+            }
+            else if( c == '+' || c == '-' ) {
+                int oh = digits(time, idx + 1, 2), om;
+
+                if( idx + 6 == len && time.charAt(idx + 3) == ':' ) {
+                    om = digits(time, idx + 4, 2);
+                }
+                else if( idx + 5 == len ) {
+                    om = digits(time, idx + 3, 2);
                 }
-                catch( ParseException encore ) {
-                    fmt = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss");
-                    try {
-                        return fmt.parse(time).getTime();
-                    }
-                    catch( ParseException again ) {
-                        try {
-                            return fmt.parse(time).getTime();
-                        }
-                        catch( ParseException whynot ) {
-                            //2012-06-16 19:41:29
-                            fmt = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-                            try {
-                                return fmt.parse(time).getTime();
-                            }
-                            catch( ParseException because ) {
-                                throw new InternalException("Could not parse date: " + time);
-                            }
-                        }
-                    }
+                else if( idx + 3 == len ) {
+                    om = 0;
                 }
+                else {
+                    return Long.MIN_VALUE;
+                }
+                if( oh < 0 || om < 0 ) {
+                    return Long.MIN_VALUE;
+                }
+                offsetMinutes = (c == '+' ? 1 : -1) * (oh * 60 + om);
+                idx = len;
+            }
+            if( idx != len ) {
+                return Long.MIN_VALUE;
             }
         }
-        return 0L;
+        // days from the civil calendar date, see http://howardhinnant.github.io/date_algorithms.html
+        int y = (month <= 2 ? year - 1 : year);
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yoe = y - era * 400;
+        int doy = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        long days = era * 146097L + doe - 719468L;
+
+        return ((((days * 24L + hour) * 60L + minute - offsetMinutes) * 60L) + second) * 1000L + millis;
+    }
+
+    static private int digits(@Nonnull String text, int start, int count) {
+        if( start + count > text.length() ) {
+            return -1;
+        }
+        int value = 0;
+
+        for( int i = start; i < start + count; i++ ) {
+            char c = text.charAt(i);
+
+            if( c < '0' || c > '9' ) {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
     }
     
     @Override
@@ -0,0 +1,271 @@
+/**
+ * Copyright (C) 2009-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.openstack.nova.os;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.impl.cookie.DateParseException;
+import org.apache.http.impl.cookie.DateUtils;
+import org.apache.http.util.EntityUtils;
+import org.dasein.cloud.CloudErrorType;
+import org.dasein.cloud.CloudException;
+import org.dasein.cloud.InternalException;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * A token bucket limiting the rate of requests sent to one service on behalf of one tenant. Besides the steady rate,
+ * the bucket can be paused when the cloud reports that a limit has been hit (413 overLimit or 429 with a Retry-After),
+ * so that every caller backs off instead of only the one that received the error.
+ * @since 2016.02
+ */
+public class RateLimiter {
+    static public final int SC_TOO_MANY_REQUESTS = 429;
+
+    static private final ConcurrentMap<String,RateLimiter> limiters = new ConcurrentHashMap<String, RateLimiter>();
+
+    /**
+     * @param key identifies the service and tenant the bucket applies to
+     * @param permitsPerSecond the steady request rate, 0 for no limit other than cloud-requested pauses
+     * @param burst the number of requests that may be sent at once after a quiet period
+     * @return the bucket for the specified key, created with the specified rate if it does not exist yet
+     */
+    static public @Nonnull RateLimiter getInstance(@Nonnull String key, double permitsPerSecond, @Nonnegative int burst) {
+        RateLimiter limiter = limiters.get(key);
+
+        if( limiter == null ) {
+            RateLimiter existing = limiters.putIfAbsent(key, limiter = new RateLimiter(key, permitsPerSecond, burst));
+
+            if( existing != null ) {
+                limiter = existing;
+            }
+        }
+        return limiter;
+    }
+
+    /**
+     * @param key identifies the service, tenant and possibly verb the bucket applies to
+     * @return the bucket for the specified key, or null if none has been created
+     */
+    static public @Nullable RateLimiter find(@Nonnull String key) {
+        return limiters.get(key);
+    }
+
+    /**
+     * Determines how long the cloud asked the client to wait before retrying, from the Retry-After header or from the
+     * retryAfter member of an overLimit body. The response entity must be repeatable as it may be read.
+     * @param response a 413 or 429 response
+     * @return the number of milliseconds to wait, or -1 if the response does not say
+     */
+    static long parseRetryAfter(@Nonnull HttpResponse response) {
+        long now = System.currentTimeMillis();
+        Header header = response.getFirstHeader("Retry-After");
+
+        if( header != null && header.getValue() != null ) {
+            long wait = parseDelay(header.getValue().trim(), now);
+
+            if( wait >= 0 ) {
+                return wait;
+            }
+        }
+        HttpEntity entity = response.getEntity();
+
+        if( entity == null || !entity.isRepeatable() || entity.getContentEncoding() != null ) {
+            return -1L;
+        }
+        try {
+            JSONObject ob = new JSONObject(EntityUtils.toString(entity));
+
+            if( ob.has("overLimit") ) {
+                ob = ob.getJSONObject("overLimit");
+            }
+            if( ob.has("retryAfter") && !ob.isNull("retryAfter") ) {
+                return parseDelay(ob.getString("retryAfter").trim(), now);
+            }
+        }
+        catch( IOException ignore ) {
+            // fall through
+        }
+        catch( JSONException ignore ) {
+            // not a JSON error body
+        }
+        return -1L;
+    }
+
+    static private long parseDelay(@Nonnull String value, long now) {
+        if( value.isEmpty() ) {
+            return -1L;
+        }
+        try {
+            return Math.max(0L, Long.parseLong(value) * 1000L);
+        }
+        catch( NumberFormatException ignore ) {
+            // not delta-seconds, try a date
+        }
+        try {
+            Date date = DateUtils.parseDate(value);
+
+            return Math.max(0L, date.getTime() - now);
+        }
+        catch( DateParseException ignore ) {
+            // not an HTTP date either, try ISO 8601
+        }
+        try {
+            return Math.max(0L, NovaOpenStack.parseTimestamp(value) - now);
+        }
+        catch( InternalException ignore ) {
+            return -1L;
+        }
+    }
+
+    private final String     key;
+    private final AtomicLong pauses  = new AtomicLong();
+    private final AtomicLong waits   = new AtomicLong();
+
+    private double capacity;
+    private long   lastRefill;
+    private long   pausedUntil;
+    private double permitsPerMilli;
+    private double tokens;
+
+    RateLimiter(@Nonnull String key, double permitsPerSecond, @Nonnegative int burst) {
+        this.key = key;
+        this.lastRefill = System.currentTimeMillis();
+        setRate(permitsPerSecond, burst);
+        this.tokens = capacity;
+    }
+
+    /**
+     * Changes the steady rate of the bucket, for example once the actual limits of the cloud are known.
+     * @param permitsPerSecond the steady request rate, 0 for no limit other than cloud-requested pauses
+     * @param burst the number of requests that may be sent at once after a quiet period
+     */
+    public synchronized void setRate(double permitsPerSecond, @Nonnegative int burst) {
+        refill(System.currentTimeMillis());
+        permitsPerMilli = Math.max(0.0, permitsPerSecond) / 1000.0;
+        capacity = Math.max(1, burst);
+        tokens = Math.min(tokens, capacity);
+    }
+
+    public synchronized double getPermitsPerSecond() {
+        return permitsPerMilli * 1000.0;
+    }
+
+    /**
+     * Stops handing out permits for the specified period; a longer pause already in effect is kept.
+     * @param millis how long the cloud asked the client to wait
+     */
+    public synchronized void pause(@Nonnegative long millis) {
+        long until = System.currentTimeMillis() + millis;
+
+        if( until > pausedUntil ) {
+            pausedUntil = until;
+        }
+        pauses.incrementAndGet();
+    }
+
+    /**
+     * Waits until a request may be sent.
+     * @param deadline the time by which the request must have been sent
+     * @throws CloudException the request could not be sent before the deadline
+     * @throws InternalException the wait was interrupted
+     */
+    public void acquire(long deadline) throws CloudException, InternalException {
+        while( true ) {
+            long now = System.currentTimeMillis();
+            long wait = tryAcquire(now);
+
+            if( wait <= 0L ) {
+                return;
+            }
+            if( now + wait > deadline ) {
+                NovaException.ExceptionItems items = new NovaException.ExceptionItems();
+
+                items.code = SC_TOO_MANY_REQUESTS;
+                items.type = CloudErrorType.THROTTLING;
+                items.message = "overLimit";
+                items.details = "Request rate to " + key + " is limited; no request can be sent within the allowed wait";
+                throw new NovaException(items);
+            }
+            waits.incrementAndGet();
+            try {
+                Thread.sleep(wait);
+            }
+            catch( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+                throw new InternalException(e);
+            }
+        }
+    }
+
+    /**
+     * @return 0 if a permit was taken, otherwise the number of milliseconds to wait before trying again
+     */
+    synchronized long tryAcquire(long now) {
+        if( pausedUntil > now ) {
+            return pausedUntil - now;
+        }
+        if( permitsPerMilli <= 0.0 ) {
+            return 0L;
+        }
+        refill(now);
+        if( tokens >= 1.0 ) {
+            tokens -= 1.0;
+            return 0L;
+        }
+        return Math.max(1L, (long)Math.ceil((1.0 - tokens) / permitsPerMilli));
+    }
+
+    private void refill(long now) {
+        if( now > lastRefill ) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * permitsPerMilli);
+            lastRefill = now;
+        }
+    }
+
+    public @Nonnull String getKey() {
+        return key;
+    }
+
+    /**
+     * @return the number of times the cloud asked for this bucket to be paused
+     */
+    public @Nonnegative long getPauses() {
+        return pauses.get();
+    }
+
+    /**
+     * @return the number of times a caller had to wait for a permit
+     */
+    public @Nonnegative long getWaits() {
+        return waits.get();
+    }
+}
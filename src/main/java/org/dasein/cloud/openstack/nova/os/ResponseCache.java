@@ -0,0 +1,318 @@
+/**
+ * Copyright (C) 2009-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.openstack.nova.os;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.apache.http.entity.ByteArrayEntity;
+
+/**
+ * A bounded, least-recently-used cache of GET response bodies along with the validators (ETag, Last-Modified) needed
+ * to revalidate them with a conditional GET. Entries are keyed by auth token and URL, so a body is only ever served
+ * back to callers holding the same credentials that fetched it. Entries are held in one segment per service endpoint,
+ * each with its own lock, so that dropping the responses of one service after a write does not hold up reads from
+ * the others. When the cache is full, the least recently used entries of the endpoint being written to are evicted
+ * first, then those of other endpoints.
+ * @since 2016.02
+ */
+public class ResponseCache {
+    static public final long DEFAULT_CAPACITY  = 16L * 1024L * 1024L;
+
+    static private final ConcurrentMap<Long,ResponseCache> instances = new ConcurrentHashMap<Long, ResponseCache>();
+
+    /**
+     * @return the cache shared by every provider using the default capacity
+     */
+    static public @Nonnull ResponseCache getInstance() {
+        return getInstance(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity the total size in bytes of the bodies the cache may hold
+     * @return the cache shared by every provider configured with that capacity
+     */
+    static public @Nonnull ResponseCache getInstance(@Nonnegative long capacity) {
+        ResponseCache cache = instances.get(capacity);
+
+        if( cache == null ) {
+            ResponseCache existing = instances.putIfAbsent(capacity, cache = new ResponseCache(capacity));
+
+            if( existing != null ) {
+                cache = existing;
+            }
+        }
+        return cache;
+    }
+
+    static private @Nonnull String trimSlash(@Nonnull String endpoint) {
+        return (endpoint.endsWith("/") ? endpoint.substring(0, endpoint.length()-1) : endpoint);
+    }
+
+    static public class Entry {
+        private final byte[] body;
+        private final String contentType;
+        private final String eTag;
+        private final String lastModified;
+        private volatile long freshUntil;
+
+        Entry(@Nonnull byte[] body, @Nullable String contentType, @Nullable String eTag, @Nullable String lastModified, long freshUntil) {
+            this.body = body;
+            this.contentType = contentType;
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+            this.freshUntil = freshUntil;
+        }
+
+        public @Nullable String getETag() {
+            return eTag;
+        }
+
+        public @Nullable String getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * @return true if the entry may be served without asking the server whether it changed
+         */
+        public boolean isFresh() {
+            return (System.currentTimeMillis() < freshUntil);
+        }
+
+        void refresh(long freshUntil) {
+            this.freshUntil = freshUntil;
+        }
+
+        /**
+         * @return a new entity carrying a copy-free view of the cached body
+         */
+        public @Nonnull ByteArrayEntity toEntity() {
+            ByteArrayEntity entity = new ByteArrayEntity(body);
+
+            if( contentType != null ) {
+                entity.setContentType(contentType);
+            }
+            return entity;
+        }
+    }
+
+    /**
+     * The entries of one service endpoint.
+     */
+    static private class Segment {
+        private final LinkedHashMap<String,Entry> entries = new LinkedHashMap<String, Entry>(64, 0.75f, true);
+        private long size;
+    }
+
+    private final long                              capacity;
+    private final AtomicLong                        hits          = new AtomicLong();
+    private final AtomicLong                        misses        = new AtomicLong();
+    private final AtomicLong                        revalidations = new AtomicLong();
+    private final ConcurrentMap<String,Segment>     segments      = new ConcurrentHashMap<String, Segment>();
+    private final AtomicLong                        size          = new AtomicLong();
+
+    ResponseCache(@Nonnegative long capacity) {
+        this.capacity = capacity;
+    }
+
+    private @Nonnull Segment getSegment(@Nonnull String endpoint) {
+        endpoint = trimSlash(endpoint);
+        Segment segment = segments.get(endpoint);
+
+        if( segment == null ) {
+            Segment existing = segments.putIfAbsent(endpoint, segment = new Segment());
+
+            if( existing != null ) {
+                segment = existing;
+            }
+        }
+        return segment;
+    }
+
+    /**
+     * @param endpoint the service endpoint the response came from
+     * @param key the auth token and URL of the request
+     * @return the cached response, or null if there is none
+     */
+    public @Nullable Entry get(@Nonnull String endpoint, @Nonnull String key) {
+        Segment segment = segments.get(trimSlash(endpoint));
+
+        if( segment == null ) {
+            return null;
+        }
+        synchronized( segment ) {
+            return segment.entries.get(key);
+        }
+    }
+
+    /**
+     * Stores a response body, evicting the least recently used bodies as needed to stay within capacity. Bodies larger
+     * than an eighth of the capacity are not cached.
+     * @param endpoint the service endpoint the response came from
+     * @param key the auth token and URL of the request
+     * @param entry the response
+     */
+    public void put(@Nonnull String endpoint, @Nonnull String key, @Nonnull Entry entry) {
+        if( entry.body.length > capacity / 8 ) {
+            remove(endpoint, key);
+            return;
+        }
+        Segment segment = getSegment(endpoint);
+
+        synchronized( segment ) {
+            Entry old = segment.entries.put(key, entry);
+            long delta = entry.body.length - (old == null ? 0L : old.body.length);
+
+            segment.size += delta;
+            size.addAndGet(delta);
+            evict(segment, key);
+        }
+        for( Segment other : segments.values() ) {
+            if( size.get() <= capacity ) {
+                break;
+            }
+            if( other != segment ) {
+                synchronized( other ) {
+                    evict(other, null);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops the least recently used entries of a segment, whose lock the caller holds, until the cache fits within
+     * capacity or only the entry to keep is left.
+     * @param keep the key of the entry just stored, or null
+     */
+    private void evict(@Nonnull Segment segment, @Nullable String keep) {
+        Iterator<Map.Entry<String,Entry>> it = segment.entries.entrySet().iterator();
+
+        while( size.get() > capacity && it.hasNext() ) {
+            Map.Entry<String,Entry> e = it.next();
+
+            if( e.getKey().equals(keep) ) {
+                continue;
+            }
+            segment.size -= e.getValue().body.length;
+            size.addAndGet(-e.getValue().body.length);
+            it.remove();
+        }
+    }
+
+    /**
+     * @param endpoint the service endpoint the response came from
+     * @param key the auth token and URL of the request
+     */
+    public void remove(@Nonnull String endpoint, @Nonnull String key) {
+        Segment segment = segments.get(trimSlash(endpoint));
+
+        if( segment == null ) {
+            return;
+        }
+        synchronized( segment ) {
+            Entry old = segment.entries.remove(key);
+
+            if( old != null ) {
+                segment.size -= old.body.length;
+                size.addAndGet(-old.body.length);
+            }
+        }
+    }
+
+    /**
+     * Drops every cached response from the specified service endpoint, whatever the auth token. Responses from other
+     * endpoints are neither touched nor held up.
+     * @param endpoint the service endpoint that has just been written to
+     */
+    public void invalidate(@Nonnull String endpoint) {
+        Segment segment = segments.get(trimSlash(endpoint));
+
+        if( segment == null ) {
+            return;
+        }
+        synchronized( segment ) {
+            segment.entries.clear();
+            size.addAndGet(-segment.size);
+            segment.size = 0L;
+        }
+    }
+
+    public void clear() {
+        for( Segment segment : segments.values() ) {
+            synchronized( segment ) {
+                segment.entries.clear();
+                size.addAndGet(-segment.size);
+                segment.size = 0L;
+            }
+        }
+    }
+
+    void hit() {
+        hits.incrementAndGet();
+    }
+
+    void miss() {
+        misses.incrementAndGet();
+    }
+
+    void revalidated() {
+        revalidations.incrementAndGet();
+    }
+
+    /**
+     * @return the number of requests answered from memory without contacting the server
+     */
+    public @Nonnegative long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return the number of requests for which the server had to send a full body
+     */
+    public @Nonnegative long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return the number of requests answered from memory after the server replied 304 Not Modified
+     */
+    public @Nonnegative long getRevalidations() {
+        return revalidations.get();
+    }
+
+    /**
+     * @return the maximum total size in bytes of the cached bodies
+     */
+    public @Nonnegative long getCapacity() {
+        return capacity;
+    }
+
+    public @Nonnegative long getSize() {
+        return size.get();
+    }
+}
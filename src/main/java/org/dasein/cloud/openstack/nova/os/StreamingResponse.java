@@ -0,0 +1,143 @@
+/**
+ * Copyright (C) 2009-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.openstack.nova.os;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpRequestBase;
+
+/**
+ * The body of an HTTP response handed to the caller as a stream. The pooled connection carrying the body is
+ * returned to the pool as soon as the body has been read to the end or the stream is closed. Closing the stream
+ * before the end of the body aborts the connection rather than draining the remainder of a potentially large
+ * object from the wire.
+ * @since 2016.02
+ */
+public class StreamingResponse extends InputStream {
+    private final InputStream     content;
+    private final long            contentLength;
+    private final String          contentType;
+    private final String          eTag;
+    private final HttpRequestBase request;
+
+    private boolean closed;
+    private boolean eof;
+
+    public StreamingResponse(@Nonnull HttpRequestBase request, @Nonnull HttpResponse response, @Nonnull HttpEntity entity) throws IOException {
+        this.request = request;
+        this.content = entity.getContent();
+        this.contentLength = entity.getContentLength();
+        this.contentType = (entity.getContentType() == null ? null : entity.getContentType().getValue());
+
+        Header etag = response.getFirstHeader("ETag");
+
+        this.eTag = (etag == null ? null : etag.getValue());
+    }
+
+    /**
+     * @return the number of bytes in the body as advertised by the server, or -1 if unknown
+     */
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    public @Nullable String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * @return the ETag header of the response; for Swift objects this is the MD5 checksum of the content
+     */
+    public @Nullable String getETag() {
+        return eTag;
+    }
+
+    /**
+     * @return true if the entire body has been read
+     */
+    public boolean isFullyRead() {
+        return eof;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = content.read();
+
+        if( b == -1 ) {
+            eof = true;
+        }
+        return b;
+    }
+
+    @Override
+    public int read(@Nonnull byte[] buffer, int offset, int length) throws IOException {
+        int count = content.read(buffer, offset, length);
+
+        if( count == -1 ) {
+            eof = true;
+        }
+        return count;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        return content.skip(n);
+    }
+
+    @Override
+    public int available() throws IOException {
+        return content.available();
+    }
+
+    /**
+     * Aborts the underlying connection immediately, discarding any unread content.
+     */
+    public void abort() {
+        if( !closed ) {
+            closed = true;
+            request.abort();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if( closed ) {
+            return;
+        }
+        if( !eof ) {
+            abort();
+            return;
+        }
+        closed = true;
+        try {
+            content.close();
+        }
+        finally {
+            request.releaseConnection();
+        }
+    }
+}
@@ -30,10 +30,6 @@ import org.apache.log4j.Logger;
 import org.dasein.cloud.CloudException;
 import org.dasein.cloud.InternalException;
 import org.dasein.cloud.Tag;
-import org.dasein.cloud.util.Cache;
-import org.dasein.cloud.util.CacheLevel;
-import org.dasein.util.uom.time.Day;
-import org.dasein.util.uom.time.TimePeriod;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -53,10 +49,13 @@ public class SwiftMethod extends AbstractMethod {
             delete(context.getAuthToken(), endpoint, "/" + bucket);
         }
         catch (NovaException ex) {
-            if (ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED) {
-                Cache<AuthenticationContext> cache = Cache.getInstance(provider, "authenticationContext", AuthenticationContext.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Day>(1, TimePeriod.DAY));
-                cache.clear();
-                delete(bucket);
+            if( ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED && beginAuthenticationRetry(context) ) {
+                try {
+                    delete(bucket);
+                }
+                finally {
+                    endAuthenticationRetry();
+                }
             }
             else {
                 throw ex;
@@ -76,10 +75,13 @@ public class SwiftMethod extends AbstractMethod {
             delete(context.getAuthToken(), endpoint, "/" + bucket + "/" + object);
         }
         catch (NovaException ex) {
-            if (ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED) {
-                Cache<AuthenticationContext> cache = Cache.getInstance(provider, "authenticationContext", AuthenticationContext.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Day>(1, TimePeriod.DAY));
-                cache.clear();
-                delete(bucket, object);
+            if( ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED && beginAuthenticationRetry(context) ) {
+                try {
+                    delete(bucket, object);
+                }
+                finally {
+                    endAuthenticationRetry();
+                }
             }
             else {
                 throw ex;
@@ -118,10 +120,13 @@ public class SwiftMethod extends AbstractMethod {
             return entries;
         }
         catch (NovaException ex) {
-            if (ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED) {
-                Cache<AuthenticationContext> cache = Cache.getInstance(provider, "authenticationContext", AuthenticationContext.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Day>(1, TimePeriod.DAY));
-                cache.clear();
-                return get(bucket);
+            if( ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED && beginAuthenticationRetry(context) ) {
+                try {
+                    return get(bucket);
+                }
+                finally {
+                    endAuthenticationRetry();
+                }
             }
             else {
                 throw ex;
@@ -129,6 +134,13 @@ public class SwiftMethod extends AbstractMethod {
         }
     }
 
+    /**
+     * Streams the content of the specified object. The result is a {@link StreamingResponse} carrying the object's
+     * Content-Length and ETag; it must be closed to return its connection to the pool.
+     * @param bucket the container holding the object
+     * @param object the name of the object
+     * @return the object content, or null if no such object exists
+     */
     public @Nullable InputStream get(@Nonnull String bucket, @Nonnull String object) throws CloudException, InternalException {
         AuthenticationContext context = provider.getAuthenticationContext();
         String endpoint = context.getStorageUrl();
@@ -140,10 +152,13 @@ public class SwiftMethod extends AbstractMethod {
             return getStream(context.getAuthToken(), endpoint, "/" + bucket + "/" + object);
         }
         catch (NovaException ex) {
-            if (ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED) {
-                Cache<AuthenticationContext> cache = Cache.getInstance(provider, "authenticationContext", AuthenticationContext.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Day>(1, TimePeriod.DAY));
-                cache.clear();
-                return get(bucket, object);
+            if( ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED && beginAuthenticationRetry(context) ) {
+                try {
+                    return get(bucket, object);
+                }
+                finally {
+                    endAuthenticationRetry();
+                }
             }
             else {
                 throw ex;
@@ -163,10 +178,13 @@ public class SwiftMethod extends AbstractMethod {
             return head(context.getAuthToken(), endpoint, "/" + bucket);
         }
         catch (NovaException ex) {
-            if (ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED) {
-                Cache<AuthenticationContext> cache = Cache.getInstance(provider, "authenticationContext", AuthenticationContext.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Day>(1, TimePeriod.DAY));
-                cache.clear();
-                return head(bucket);
+            if( ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED && beginAuthenticationRetry(context) ) {
+                try {
+                    return head(bucket);
+                }
+                finally {
+                    endAuthenticationRetry();
+                }
             }
             else {
                 throw ex;
@@ -185,10 +203,13 @@ public class SwiftMethod extends AbstractMethod {
             return head(context.getAuthToken(), endpoint, "/" + bucket + "/" + object);
         }
         catch (NovaException ex) {
-            if (ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED) {
-                Cache<AuthenticationContext> cache = Cache.getInstance(provider, "authenticationContext", AuthenticationContext.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Day>(1, TimePeriod.DAY));
-                cache.clear();
-                return head(bucket, object);
+            if( ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED && beginAuthenticationRetry(context) ) {
+                try {
+                    return head(bucket, object);
+                }
+                finally {
+                    endAuthenticationRetry();
+                }
             }
             else {
                 throw ex;
@@ -207,10 +228,13 @@ public class SwiftMethod extends AbstractMethod {
             putString(context.getAuthToken(), endpoint, "/" + bucket, null);
         }
         catch (NovaException ex) {
-            if (ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED) {
-                Cache<AuthenticationContext> cache = Cache.getInstance(provider, "authenticationContext", AuthenticationContext.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Day>(1, TimePeriod.DAY));
-                cache.clear();
-                put(bucket);
+            if( ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED && beginAuthenticationRetry(context) ) {
+                try {
+                    put(bucket);
+                }
+                finally {
+                    endAuthenticationRetry();
+                }
             }
             else {
                 throw ex;
@@ -229,10 +253,13 @@ public class SwiftMethod extends AbstractMethod {
             putStream(context.getAuthToken(), endpoint, "/" + bucket + "/" + object, md5Hash, payload);
         }
         catch (NovaException ex) {
-            if (ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED) {
-                Cache<AuthenticationContext> cache = Cache.getInstance(provider, "authenticationContext", AuthenticationContext.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Day>(1, TimePeriod.DAY));
-                cache.clear();
-                put(bucket, object, md5Hash, payload);
+            if( ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED && beginAuthenticationRetry(context) ) {
+                try {
+                    put(bucket, object, md5Hash, payload);
+                }
+                finally {
+                    endAuthenticationRetry();
+                }
             }
             else {
                 throw ex;
@@ -254,10 +281,13 @@ public class SwiftMethod extends AbstractMethod {
     		putHeaders(context.getAuthToken(), endpoint, "/" + bucket, customHeaders);
     	}
     	catch (NovaException ex) {
-    		if (ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED) {
-    			Cache<AuthenticationContext> cache = Cache.getInstance(provider, "authenticationContext", AuthenticationContext.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Day>(1, TimePeriod.DAY));
-    			cache.clear();
-    			put(bucket, prefix, tags);
+            if( ex.getHttpCode() == HttpStatus.SC_UNAUTHORIZED && beginAuthenticationRetry(context) ) {
+                try {
+                    put(bucket, prefix, tags);
+                }
+                finally {
+                    endAuthenticationRetry();
+                }
     		}
     		else {
     			logger.error("Error while updating the tags for bucket - " + bucket + ": " + ex.getMessage());
@@ -0,0 +1,199 @@
+/**
+ * Copyright (C) 2009-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.openstack.nova.os;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.entity.DeflateDecompressingEntity;
+import org.apache.http.client.entity.GzipDecompressingEntity;
+import org.apache.http.entity.HttpEntityWrapper;
+
+/**
+ * Counts the response bytes received from each service endpoint, both as they travelled on the wire and after
+ * content decoding, so that the effect of response compression can be observed per service.
+ * @since 2016.02
+ */
+public class TransferStatistics {
+    static private final ConcurrentMap<String,TransferStatistics> statistics = new ConcurrentHashMap<String, TransferStatistics>();
+
+    /**
+     * @param endpoint the base URL of a service
+     * @return the statistics for the specified service endpoint
+     */
+    static public @Nonnull TransferStatistics getInstance(@Nonnull String endpoint) {
+        TransferStatistics stats = statistics.get(endpoint);
+
+        if( stats == null ) {
+            TransferStatistics existing = statistics.putIfAbsent(endpoint, stats = new TransferStatistics(endpoint));
+
+            if( existing != null ) {
+                stats = existing;
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * @return the statistics of every service endpoint contacted so far, keyed by endpoint
+     */
+    static public @Nonnull Map<String,TransferStatistics> getAll() {
+        return Collections.unmodifiableMap(new TreeMap<String, TransferStatistics>(statistics));
+    }
+
+    /**
+     * Wraps the entity of the specified response so that its bytes are counted and, if the server compressed it,
+     * it is transparently decompressed while being read.
+     * @param response the response whose entity is to be wrapped
+     * @param endpoint the base URL of the service that sent the response
+     */
+    static void decode(@Nonnull HttpResponse response, @Nonnull String endpoint) {
+        HttpEntity entity = response.getEntity();
+
+        if( entity == null ) {
+            return;
+        }
+        TransferStatistics stats = getInstance(endpoint);
+        Header encoding = entity.getContentEncoding();
+        String codec = (encoding == null ? null : encoding.getValue());
+
+        stats.responses.incrementAndGet();
+        entity = new CountingEntity(entity, stats.wireBytes);
+        if( "gzip".equalsIgnoreCase(codec) || "x-gzip".equalsIgnoreCase(codec) ) {
+            stats.compressedResponses.incrementAndGet();
+            entity = new GzipDecompressingEntity(entity);
+        }
+        else if( "deflate".equalsIgnoreCase(codec) ) {
+            stats.compressedResponses.incrementAndGet();
+            entity = new DeflateDecompressingEntity(entity);
+        }
+        response.setEntity(new CountingEntity(entity, stats.contentBytes));
+    }
+
+    private final AtomicLong compressedResponses = new AtomicLong();
+    private final AtomicLong contentBytes        = new AtomicLong();
+    private final String     endpoint;
+    private final AtomicLong responses           = new AtomicLong();
+    private final AtomicLong wireBytes           = new AtomicLong();
+
+    private TransferStatistics(@Nonnull String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public @Nonnegative long getCompressedResponses() {
+        return compressedResponses.get();
+    }
+
+    /**
+     * @return the number of response body bytes after decompression
+     */
+    public @Nonnegative long getContentBytes() {
+        return contentBytes.get();
+    }
+
+    public @Nonnull String getEndpoint() {
+        return endpoint;
+    }
+
+    public @Nonnegative long getResponses() {
+        return responses.get();
+    }
+
+    /**
+     * @return the number of response body bytes as received on the wire
+     */
+    public @Nonnegative long getWireBytes() {
+        return wireBytes.get();
+    }
+
+    @Override
+    public @Nonnull String toString() {
+        return endpoint + " [responses=" + responses + ", compressed=" + compressedResponses + ", wire=" + wireBytes + ", content=" + contentBytes + "]";
+    }
+
+    static private class CountingEntity extends HttpEntityWrapper {
+        private final AtomicLong counter;
+
+        CountingEntity(@Nonnull HttpEntity entity, @Nonnull AtomicLong counter) {
+            super(entity);
+            this.counter = counter;
+        }
+
+        @Override
+        public @Nullable InputStream getContent() throws IOException {
+            InputStream content = super.getContent();
+
+            return (content == null ? null : new CountingInputStream(content, counter));
+        }
+    }
+
+    static private class CountingInputStream extends FilterInputStream {
+        private final AtomicLong counter;
+
+        CountingInputStream(@Nonnull InputStream in, @Nonnull AtomicLong counter) {
+            super(in);
+            this.counter = counter;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+
+            if( b != -1 ) {
+                counter.incrementAndGet();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(@Nonnull byte[] buffer, int offset, int length) throws IOException {
+            int count = super.read(buffer, offset, length);
+
+            if( count > 0 ) {
+                counter.addAndGet(count);
+            }
+            return count;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+
+            if( skipped > 0 ) {
+                counter.addAndGet(skipped);
+            }
+            return skipped;
+        }
+    }
+}
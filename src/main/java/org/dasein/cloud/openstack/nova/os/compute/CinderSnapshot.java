@@ -28,6 +28,7 @@ import org.dasein.cloud.compute.SnapshotCreateOptions;
 import org.dasein.cloud.compute.SnapshotFilterOptions;
 import org.dasein.cloud.compute.SnapshotState;
 import org.dasein.cloud.identity.ServiceAction;
+import org.dasein.cloud.openstack.nova.os.Deadline;
 import org.dasein.cloud.openstack.nova.os.NovaMethod;
 import org.dasein.cloud.openstack.nova.os.NovaOpenStack;
 import org.dasein.cloud.util.APITrace;
@@ -250,8 +251,10 @@ public class CinderSnapshot extends AbstractSnapshotSupport<NovaOpenStack> {
                 catch( Throwable ignore ) {
                     // ignore
                 }
-                try { Thread.sleep(15000L); }
-                catch( InterruptedException ignore ) { }
+                if( !Deadline.sleep(15000L) ) {
+                    Deadline.check("Snapshot.remove");
+                    break;
+                }
             }
             NovaMethod method = new NovaMethod(getProvider());
 
@@ -268,8 +271,10 @@ public class CinderSnapshot extends AbstractSnapshotSupport<NovaOpenStack> {
                 catch( Throwable ignore ) {
                     // ignore
                 }
-                try { Thread.sleep(15000L); }
-                catch( InterruptedException ignore ) { }
+                if( !Deadline.sleep(15000L) ) {
+                    Deadline.check("Snapshot.remove");
+                    break;
+                }
             }
         }
         finally {
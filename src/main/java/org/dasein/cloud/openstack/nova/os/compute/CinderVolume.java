@@ -30,6 +30,7 @@ import org.dasein.cloud.compute.VolumeFormat;
 import org.dasein.cloud.compute.VolumeProduct;
 import org.dasein.cloud.compute.VolumeState;
 import org.dasein.cloud.compute.VolumeType;
+import org.dasein.cloud.openstack.nova.os.Deadline;
 import org.dasein.cloud.openstack.nova.os.NovaMethod;
 import org.dasein.cloud.openstack.nova.os.NovaOpenStack;
 import org.dasein.cloud.util.APITrace;
@@ -382,8 +383,10 @@ public class CinderVolume extends AbstractVolumeSupport<NovaOpenStack> {
                 if( !VolumeState.PENDING.equals(v.getCurrentState()) ) {
                     break;
                 }
-                try { Thread.sleep(15000L); }
-                catch( InterruptedException ignore ) { }
+                if( !Deadline.sleep(15000L) ) {
+                    Deadline.check("Volume.remove");
+                    break;
+                }
                 try {
                     v = getVolume(volumeId);
                 }
@@ -401,8 +404,10 @@ public class CinderVolume extends AbstractVolumeSupport<NovaOpenStack> {
                 if( v == null || v.getCurrentState().equals(VolumeState.DELETED)) {
                     return;
                 }
-                try { Thread.sleep(15000L); }
-                catch( InterruptedException ignore ) { }
+                if( !Deadline.sleep(15000L) ) {
+                    Deadline.check("Volume.remove");
+                    break;
+                }
                 try {
                     v = getVolume(volumeId);
                 }
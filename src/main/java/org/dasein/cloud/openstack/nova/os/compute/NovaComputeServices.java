@@ -19,14 +19,35 @@
 
 package org.dasein.cloud.openstack.nova.os.compute;
 
+import org.apache.log4j.Logger;
+import org.dasein.cloud.CloudException;
+import org.dasein.cloud.InternalException;
+import org.dasein.cloud.ProviderContext;
 import org.dasein.cloud.compute.AbstractComputeServices;
 import org.dasein.cloud.compute.SnapshotSupport;
 import org.dasein.cloud.compute.VolumeSupport;
+import org.dasein.cloud.openstack.nova.os.NovaMethod;
 import org.dasein.cloud.openstack.nova.os.NovaOpenStack;
+import org.dasein.cloud.openstack.nova.os.RateLimiter;
+import org.dasein.cloud.util.APITrace;
+import org.dasein.cloud.util.Cache;
+import org.dasein.cloud.util.CacheLevel;
+import org.dasein.util.uom.time.Minute;
+import org.dasein.util.uom.time.TimePeriod;
+import org.json.JSONObject;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
 
 public class NovaComputeServices extends AbstractComputeServices<NovaOpenStack> {
+    static private final Logger logger = NovaOpenStack.getLogger(NovaComputeServices.class, "std");
+
+    static private final ConcurrentHashMap<String,Boolean> limitsRefreshing = new ConcurrentHashMap<String, Boolean>();
+
     public NovaComputeServices(@Nonnull NovaOpenStack provider) { super(provider); }
     
     @Override
@@ -39,6 +60,117 @@ public class NovaComputeServices extends AbstractComputeServices<NovaOpenStack>
         return new NovaServer(getProvider());
     }
 
+    private @Nonnull Cache<NovaLimits> getLimitsCache() {
+        return Cache.getInstance(getProvider(), "novaLimits", NovaLimits.class, CacheLevel.REGION_ACCOUNT, new TimePeriod<Minute>(5, TimePeriod.MINUTE));
+    }
+
+    /**
+     * Provides the rate and absolute limits Nova publishes for the current tenant. The limits are cached for five
+     * minutes; each time they are loaded, the rate limits that apply to every request are used to configure the
+     * request throttling for the compute service.
+     * @return the current limits, or null if the cloud does not publish them
+     * @throws CloudException an error occurred retrieving the limits
+     * @throws InternalException an error occurred within Dasein Cloud
+     */
+    public @Nullable NovaLimits getLimits() throws CloudException, InternalException {
+        ProviderContext ctx = getProvider().getContext();
+
+        if( ctx == null ) {
+            throw new InternalException("No context was set for this request");
+        }
+        Cache<NovaLimits> cache = getLimitsCache();
+        Iterable<NovaLimits> cached = cache.get(ctx);
+
+        if( cached != null ) {
+            Iterator<NovaLimits> it = cached.iterator();
+
+            return (it.hasNext() ? it.next() : null);
+        }
+        APITrace.begin(getProvider(), "Compute.getLimits");
+        try {
+            NovaMethod method = new NovaMethod(getProvider());
+            JSONObject ob = method.getServers("/limits", null, false);
+            NovaLimits limits = (ob == null ? null : NovaLimits.parse(ob));
+
+            if( limits == null ) {
+                cache.put(ctx, Collections.<NovaLimits>emptyList());
+                return null;
+            }
+            applyRateLimits(limits, method.getAuthenticationContext().getComputeUrl());
+            cache.put(ctx, Collections.singletonList(limits));
+            return limits;
+        }
+        finally {
+            APITrace.end();
+        }
+    }
+
+    private void applyRateLimits(@Nonnull NovaLimits limits, @Nullable String endpoint) {
+        if( endpoint == null ) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+
+        for( NovaLimits.RateLimit limit : limits.getRateLimits() ) {
+            long seconds = limit.getUnitSeconds();
+
+            if( !limit.isGlobal() || seconds < 1L ) {
+                continue;
+            }
+            RateLimiter limiter = getProvider().configureRateLimit(endpoint, limit.verb.toUpperCase(), ((double)limit.value)/seconds, limit.value);
+
+            if( limit.remaining < 1 && limit.nextAvailable > now ) {
+                limiter.pause(limit.nextAvailable - now);
+            }
+            if( logger.isDebugEnabled() ) {
+                logger.debug("Throttling " + limit + " requests to " + endpoint);
+            }
+        }
+    }
+
+    /**
+     * Reloads the limits on the provider's executor if the cached copy has expired, so that throttling follows
+     * changes in the published limits without delaying the caller. The provider calls this when the compute service
+     * rate limits a request, so the limits are only loaded for tenants that actually hit them.
+     */
+    public void refreshLimitsInBackground() {
+        final ProviderContext ctx = getProvider().getContext();
+
+        if( ctx == null ) {
+            return;
+        }
+        if( getLimitsCache().get(ctx) != null ) {
+            return;
+        }
+        final String key = ctx.getCloud().getEndpoint() + "|" + ctx.getAccountNumber() + "|" + ctx.getRegionId();
+
+        if( limitsRefreshing.putIfAbsent(key, Boolean.TRUE) != null ) {
+            return;
+        }
+        try {
+            getProvider().getExecutor().submit(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        getLimits();
+                    }
+                    catch( Throwable t ) {
+                        logger.debug("Unable to load compute limits: " + t.getMessage());
+                    }
+                    finally {
+                        limitsRefreshing.remove(key);
+                    }
+                }
+            });
+        }
+        catch( RejectedExecutionException e ) {
+            limitsRefreshing.remove(key);
+        }
+        catch( IllegalStateException e ) {
+            limitsRefreshing.remove(key);
+        }
+    }
+
     @Override
     public @Nonnull SnapshotSupport getSnapshotSupport() {
         return new CinderSnapshot(getProvider());
@@ -41,6 +41,7 @@ import org.dasein.cloud.compute.Platform;
 import org.dasein.cloud.compute.VirtualMachine;
 import org.dasein.cloud.compute.VirtualMachineSupport;
 import org.dasein.cloud.compute.VmState;
+import org.dasein.cloud.openstack.nova.os.Deadline;
 import org.dasein.cloud.openstack.nova.os.NovaException;
 import org.dasein.cloud.openstack.nova.os.NovaMethod;
 import org.dasein.cloud.openstack.nova.os.NovaOpenStack;
@@ -149,8 +150,10 @@ public class NovaImage extends AbstractImageSupport<NovaOpenStack> {
                     catch( Throwable ignore ) {
                         // ignore
                     }
-                    try { Thread.sleep(15000L); }
-                    catch( InterruptedException ignore ) { }
+                    if( !Deadline.sleep(15000L) ) {
+                        Deadline.check("Image.capture");
+                        break;
+                    }
                 }
             }
             JSONObject result;
@@ -210,8 +213,10 @@ public class NovaImage extends AbstractImageSupport<NovaOpenStack> {
                             }
                             return image;
                         }
-                        try { Thread.sleep(15000L); }
-                        catch( InterruptedException ignore ) { }
+                        if( !Deadline.sleep(15000L) ) {
+                            Deadline.check("Image.capture");
+                            break;
+                        }
                     }
                 }
                 catch( JSONException e ) {
@@ -390,8 +395,10 @@ public class NovaImage extends AbstractImageSupport<NovaOpenStack> {
                         throw e;
                     }
                 }
-                try { Thread.sleep(CalendarWrapper.MINUTE); }
-                catch( InterruptedException e ) { /* ignore */ }
+                if( !Deadline.sleep(CalendarWrapper.MINUTE) ) {
+                    Deadline.check("Image.remove");
+                    break;
+                }
             } while( System.currentTimeMillis() < timeout );
         }
         finally {
@@ -0,0 +1,199 @@
+/**
+ * Copyright (C) 2009-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.openstack.nova.os.compute;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.dasein.cloud.InternalException;
+import org.dasein.cloud.openstack.nova.os.NovaOpenStack;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * The rate and absolute limits Nova publishes for the current tenant at /limits.
+ * @since 2016.02
+ */
+public class NovaLimits {
+    /**
+     * A limit on how many requests with a given verb may be made against matching URIs per unit of time.
+     */
+    static public class RateLimit {
+        public String uri;
+        public String regex;
+        public String verb;
+        public int    value;
+        public String unit;
+        public int    remaining;
+        public long   nextAvailable;
+
+        /**
+         * @return the length of the limit's unit of time in seconds, or 0 if the unit is not understood
+         */
+        public long getUnitSeconds() {
+            if( "SECOND".equalsIgnoreCase(unit) ) {
+                return 1L;
+            }
+            else if( "MINUTE".equalsIgnoreCase(unit) ) {
+                return 60L;
+            }
+            else if( "HOUR".equalsIgnoreCase(unit) ) {
+                return 3600L;
+            }
+            else if( "DAY".equalsIgnoreCase(unit) ) {
+                return 86400L;
+            }
+            return 0L;
+        }
+
+        /**
+         * @return true if the limit applies to every request with its verb rather than to specific resources
+         */
+        public boolean isGlobal() {
+            return ("*".equals(uri) || ".*".equals(regex));
+        }
+
+        public String toString() { return (verb + " " + uri + " " + value + "/" + unit); }
+    }
+
+    static @Nonnull NovaLimits parse(@Nonnull JSONObject json) throws InternalException {
+        NovaLimits limits = new NovaLimits();
+
+        try {
+            JSONObject ob = (json.has("limits") ? json.getJSONObject("limits") : json);
+
+            if( ob.has("rate") && !ob.isNull("rate") ) {
+                JSONArray rates = ob.getJSONArray("rate");
+
+                for( int i=0; i<rates.length(); i++ ) {
+                    JSONObject rate = rates.getJSONObject(i);
+                    JSONArray list = rate.optJSONArray("limit");
+
+                    if( list == null ) {
+                        continue;
+                    }
+                    for( int j=0; j<list.length(); j++ ) {
+                        JSONObject l = list.getJSONObject(j);
+                        RateLimit limit = new RateLimit();
+
+                        limit.uri = rate.optString("uri", null);
+                        limit.regex = rate.optString("regex", null);
+                        limit.verb = l.optString("verb", null);
+                        limit.value = l.optInt("value", 0);
+                        limit.unit = l.optString("unit", null);
+                        limit.remaining = l.optInt("remaining", limit.value);
+                        if( l.has("next-available") && !l.isNull("next-available") ) {
+                            limit.nextAvailable = NovaOpenStack.parseTimestamp(l.getString("next-available"));
+                        }
+                        if( limit.verb != null && limit.value > 0 ) {
+                            limits.rates.add(limit);
+                        }
+                    }
+                }
+            }
+            if( ob.has("absolute") && !ob.isNull("absolute") ) {
+                JSONObject absolute = ob.getJSONObject("absolute");
+
+                for( Iterator<?> it = absolute.keys(); it.hasNext(); ) {
+                    String name = (String)it.next();
+                    int value = absolute.optInt(name, Integer.MIN_VALUE);
+
+                    if( value != Integer.MIN_VALUE ) {
+                        limits.absolute.put(name, value);
+                    }
+                }
+            }
+        }
+        catch( JSONException e ) {
+            throw new InternalException("Unable to understand limits response: " + e.getMessage(), e);
+        }
+        return limits;
+    }
+
+    private final Map<String,Integer> absolute = new HashMap<String, Integer>();
+    private final List<RateLimit>     rates    = new ArrayList<RateLimit>();
+    private final long                retrieved = System.currentTimeMillis();
+
+    public @Nonnull List<RateLimit> getRateLimits() {
+        return Collections.unmodifiableList(rates);
+    }
+
+    /**
+     * @param name the name of an absolute limit or usage figure, such as maxTotalInstances or totalInstancesUsed
+     * @return the value, or null if Nova did not report it
+     */
+    public @Nullable Integer getAbsoluteLimit(@Nonnull String name) {
+        return absolute.get(name);
+    }
+
+    /**
+     * @param maxName the name of the absolute limit, such as maxTotalInstances
+     * @param usedName the name of the matching usage figure, such as totalInstancesUsed
+     * @return how much of the quota is left, or -1 if the quota is unlimited or unknown
+     */
+    public int getRemaining(@Nonnull String maxName, @Nonnull String usedName) {
+        Integer max = absolute.get(maxName);
+
+        if( max == null || max < 0 ) {
+            return -1;
+        }
+        Integer used = absolute.get(usedName);
+
+        return Math.max(0, max - (used == null ? 0 : used));
+    }
+
+    /**
+     * @return the number of servers that can still be launched, or -1 if unlimited or unknown
+     */
+    public int getRemainingInstances() {
+        return getRemaining("maxTotalInstances", "totalInstancesUsed");
+    }
+
+    /**
+     * @return the number of virtual CPUs still available, or -1 if unlimited or unknown
+     */
+    public int getRemainingCores() {
+        return getRemaining("maxTotalCores", "totalCoresUsed");
+    }
+
+    /**
+     * @return the amount of RAM in MB still available, or -1 if unlimited or unknown
+     */
+    public int getRemainingRAM() {
+        return getRemaining("maxTotalRAMSize", "totalRAMUsed");
+    }
+
+    /**
+     * @return when these limits were retrieved from the cloud
+     */
+    public long getRetrieved() {
+        return retrieved;
+    }
+
+    public String toString() { return ("rate=" + rates + ", absolute=" + absolute); }
+}
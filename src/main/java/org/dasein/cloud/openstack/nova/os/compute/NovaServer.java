@@ -20,7 +20,6 @@
 package org.dasein.cloud.openstack.nova.os.compute;
 
 import org.apache.commons.codec.binary.Base64;
-import org.apache.commons.net.util.SubnetUtils;
 import org.apache.http.HttpStatus;
 import org.apache.log4j.Logger;
 import org.dasein.cloud.*;
@@ -36,6 +35,8 @@ import org.dasein.cloud.network.Subnet;
 import org.dasein.cloud.network.VLAN;
 import org.dasein.cloud.network.VLANSupport;
 import org.dasein.cloud.openstack.nova.os.NovaException;
+import org.dasein.cloud.openstack.nova.os.AbstractMethod;
+import org.dasein.cloud.openstack.nova.os.Deadline;
 import org.dasein.cloud.openstack.nova.os.NovaMethod;
 import org.dasein.cloud.openstack.nova.os.NovaOpenStack;
 import org.dasein.cloud.openstack.nova.os.OpenStackProvider;
@@ -47,6 +48,9 @@ import org.dasein.cloud.util.APITrace;
 import org.dasein.cloud.util.Cache;
 import org.dasein.cloud.util.CacheLevel;
 import org.dasein.util.CalendarWrapper;
+import org.dasein.util.Jiterator;
+import org.dasein.util.JiteratorPopulator;
+import org.dasein.util.PopulatorThread;
 import org.dasein.util.uom.storage.Gigabyte;
 import org.dasein.util.uom.storage.Megabyte;
 import org.dasein.util.uom.storage.Storage;
@@ -59,7 +63,11 @@ import org.json.JSONObject;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * Implements services supporting interaction with cloud virtual machines.
@@ -74,6 +82,11 @@ public class NovaServer extends AbstractVMSupport<NovaOpenStack> {
     static private final Logger logger = NovaOpenStack.getLogger(NovaServer.class, "std");
 
     static public final String SERVICE = "compute";
+
+    /**
+     * The number of servers requested per page when listing; the cloud may return fewer (osapi_max_limit).
+     */
+    static public final int SERVER_PAGE_SIZE = 1000;
     public static final String ORG_DASEIN_PORT_ID = "org.dasein.portId";
 
     NovaServer(NovaOpenStack provider) {
@@ -198,58 +211,40 @@ public class NovaServer extends AbstractVMSupport<NovaOpenStack> {
         return getProvider().getCloudProvider();
     }
 
+    protected @Nonnull ExecutorService getExecutor() {
+        return getProvider().getExecutor();
+    }
+
+    /**
+     * @return the time allowed for a launch, resize or termination in milliseconds, 0 for no limit
+     */
+    protected long getOperationTimeout() {
+        return getProvider().getOperationTimeout();
+    }
+
     @Override
     public @Nullable VirtualMachine getVirtualMachine(@Nonnull String vmId) throws InternalException, CloudException {
         APITrace.begin(getProvider(), "VM.getVirtualMachine");
         try {
-            JSONObject ob = getMethod().getServers("/servers", vmId, true);
-
-            if( ob == null ) {
-                return null;
-            }
-            Iterable<IpAddress> ipv4, ipv6;
-            Iterable<VLAN> networks;
+            // the floating IPs and networks are fetched alongside the server, and dropped if it does not exist
+            NovaNetworkServices services = getNetworkServices();
+            PendingServerIndex index = (services == null ? new PendingServerIndex(null, null) : new PendingServerIndex(services.getIpAddressSupport(), services.getVlanSupport()));
 
-            NetworkServices services = getNetworkServices();
-            if( services != null ) {
-                IpAddressSupport support = services.getIpAddressSupport();
-
-                if( support != null ) {
-                    ipv4 = support.listIpPool(IPVersion.IPV4, false);
-                    ipv6 = support.listIpPool(IPVersion.IPV6, false);
-                }
-                else {
-                    ipv4 = ipv6 = Collections.emptyList();
-                }
-
-                VLANSupport vs = services.getVlanSupport();
-
-                if( vs != null ) {
-                    networks = vs.listVlans();
-                }
-                else {
-                    networks = Collections.emptyList();
-                }
-            }
-            else {
-                ipv4 = ipv6 = Collections.emptyList();
-                networks = Collections.emptyList();
-            }
             try {
-                if( ob.has("server") ) {
-                    JSONObject server = ob.getJSONObject("server");
-                    VirtualMachine vm = toVirtualMachine(server, ipv4, ipv6, networks);
+                JSONObject ob = getMethod().getServers("/servers", vmId, true);
 
-                    if( vm != null ) {
-                        return vm;
-                    }
+                if( ob == null || !ob.has("server") ) {
+                    return null;
                 }
+                return toVirtualMachine(ob.getJSONObject("server"), index.get());
             }
             catch( JSONException e ) {
                 logger.error("getVirtualMachine(): Unable to identify expected values in JSON: " + e.getMessage());
                 throw new CommunicationException("Missing JSON element for servers", e);
             }
-            return null;
+            finally {
+                index.cancel();
+            }
         }
         finally {
             APITrace.end();
@@ -273,6 +268,8 @@ public class NovaServer extends AbstractVMSupport<NovaOpenStack> {
     @Override
     public @Nonnull VirtualMachine alterVirtualMachineProduct(@Nonnull String virtualMachineId, @Nonnull String productId) throws InternalException, CloudException {
         APITrace.begin(getProvider(), "VM.resize");
+        long previousDeadline = Deadline.begin(getOperationTimeout());
+
         try {
             Map<String, Object> json = new HashMap<>();
             Map<String, Object> action = new HashMap<>();
@@ -283,10 +280,9 @@ public class NovaServer extends AbstractVMSupport<NovaOpenStack> {
             getMethod().postServers("/servers", virtualMachineId, new JSONObject(json), true);
             String status;
             while( "resize".equalsIgnoreCase(status = getServerStatus(virtualMachineId)) ) {
-                try {
-                    Thread.sleep(5000L);
-                }
-                catch( InterruptedException e ) {
+                if( !Deadline.sleep(5000L) ) {
+                    Deadline.check("VM.resize");
+                    throw new InternalException("Interrupted while waiting for the resize of " + virtualMachineId);
                 }
             }
             if( "verify_resize".equalsIgnoreCase(status) ) {
@@ -381,6 +377,7 @@ public class NovaServer extends AbstractVMSupport<NovaOpenStack> {
     @Override
     public @Nonnull VirtualMachine launch(@Nonnull VMLaunchOptions options) throws CloudException, InternalException {
         APITrace.begin(getProvider(), "VM.launch");
+        long previousDeadline = Deadline.begin(getOperationTimeout());
         VirtualMachine vm = null;
 
         try {
@@ -473,11 +470,11 @@ public class NovaServer extends AbstractVMSupport<NovaOpenStack> {
 
                     if( vm != null ) {
                         String vmId = vm.getProviderVirtualMachineId();
-                        long timeout = System.currentTimeMillis() + 5 * 60 * 1000;
+                        long timeout = Math.min(System.currentTimeMillis() + 5 * 60 * 1000, Deadline.get());
                         while(( vm == null || vm.getCurrentState() == null ) && System.currentTimeMillis() < timeout ) {
-                            try {
-                                Thread.sleep(5000);
-                            } catch (InterruptedException ignore) {}
+                            if( !Deadline.sleep(5000) ) {
+                                break;
+                            }
                             vm = getVirtualMachine(vmId);
                         }
                         if( vm == null || vm.getCurrentState() == null ) {
@@ -496,6 +493,7 @@ public class NovaServer extends AbstractVMSupport<NovaOpenStack> {
 
         }
         finally {
+            Deadline.end(previousDeadline);
             cleanupFailedLaunch(options, vm);
             APITrace.end();
         }
@@ -763,27 +761,26 @@ public class NovaServer extends AbstractVMSupport<NovaOpenStack> {
     public @Nonnull Iterable<ResourceStatus> listVirtualMachineStatus() throws InternalException, CloudException {
         APITrace.begin(getProvider(), "VM.listVirtualMachineStatus");
         try {
-            JSONObject ob = getMethod().getServers("/servers", null, true);
-            List<ResourceStatus> servers = new ArrayList<>();
+            final List<ResourceStatus> servers = new ArrayList<>();
 
-            try {
-                if( ob != null && ob.has("servers") ) {
-                    JSONArray list = ob.getJSONArray("servers");
-
-                    for( int i=0; i<list.length(); i++ ) {
-                        JSONObject server = list.getJSONObject(i);
-                        ResourceStatus vm = toStatus(server);
+            listServers(new ServerPageHandler() {
+                @Override
+                public void handle(@Nonnull List<JSONObject> page) throws CloudException, InternalException {
+                    for( JSONObject server : page ) {
+                        try {
+                            ResourceStatus vm = toStatus(server);
 
-                        if( vm != null ) {
-                            servers.add(vm);
+                            if( vm != null ) {
+                                servers.add(vm);
+                            }
+                        }
+                        catch( JSONException e ) {
+                            logger.error("listVirtualMachineStatus(): Unable to identify expected values in JSON: " + e.getMessage());
+                            throw new CommunicationException("Unable to understand listVirtualMachineStatus response: " + e.getMessage(), e);
                         }
                     }
                 }
-            }
-            catch( JSONException e ) {
-                logger.error("listVirtualMachines(): Unable to identify expected values in JSON: " + e.getMessage());
-                throw new CommunicationException("Unable to understand listVirtualMachines response: " + e.getMessage(), e);
-            }
+            });
             return servers;
         }
         finally {
@@ -793,48 +790,166 @@ public class NovaServer extends AbstractVMSupport<NovaOpenStack> {
 
     @Override
     public @Nonnull Iterable<VirtualMachine> listVirtualMachines() throws InternalException, CloudException {
-        APITrace.begin(getProvider(), "VM.listVirtualMachines");
-        try {
-            JSONObject ob = getMethod().getServers("/servers", null, true);
-            List<VirtualMachine> servers = new ArrayList<>();
+        PopulatorThread<VirtualMachine> populator;
+        final long deadline = Deadline.get();
 
-            Iterable<IpAddress> ipv4 = Collections.emptyList(), ipv6 = Collections.emptyList();
-            Iterable<VLAN> nets = Collections.emptyList();
+        getProvider().hold();
+        populator = new PopulatorThread<>(new JiteratorPopulator<VirtualMachine>() {
+            public void populate(@Nonnull Jiterator<VirtualMachine> iterator) throws CloudException, InternalException {
+                long previousDeadline = Deadline.adopt(deadline);
 
-            IpAddressSupport support = getNovaFloatingIp();
-            if( support != null ) {
-                ipv4 = support.listIpPool(IPVersion.IPV4, false);
-                ipv6 = support.listIpPool(IPVersion.IPV6, false);
+                try {
+                    APITrace.begin(getProvider(), "VM.listVirtualMachines");
+                    try {
+                        loadVirtualMachines(iterator);
+                    }
+                    finally {
+                        APITrace.end();
+                    }
+                }
+                finally {
+                    Deadline.end(previousDeadline);
+                    getProvider().release();
+                }
             }
+        });
+        populator.populate();
+        return populator.getResult();
+    }
 
-            VLANSupport vs = getQuantum();
-            if( vs != null ) {
-                nets = vs.listVlans();
-            }
+    /**
+     * Converts the servers of the tenant page by page and pushes them to the iterator as each page arrives. The
+     * floating IPs and networks are fetched while the first page is requested, and each page is converted only once
+     * its response has been read, so that waiting for those lookups never holds a pooled connection.
+     */
+    void loadVirtualMachines(@Nonnull final Jiterator<VirtualMachine> iterator) throws CloudException, InternalException {
+        final PendingServerIndex pending = new PendingServerIndex(getNovaFloatingIp(), getQuantum());
 
-            try {
-                if( ob != null && ob.has("servers") ) {
-                    JSONArray list = ob.getJSONArray("servers");
+        try {
+            listServers(new ServerPageHandler() {
+                @Override
+                public void handle(@Nonnull List<JSONObject> page) throws CloudException, InternalException {
+                    ServerIndex index = pending.get();
 
-                    for( int i=0; i<list.length(); i++ ) {
-                        JSONObject server = list.getJSONObject(i);
-                        VirtualMachine vm = toVirtualMachine(server, ipv4, ipv6, nets);
+                    for( JSONObject server : page ) {
+                        try {
+                            VirtualMachine vm = toVirtualMachine(server, index);
 
-                        if( vm != null ) {
-                            servers.add(vm);
+                            if( vm != null ) {
+                                iterator.push(vm);
+                            }
+                        }
+                        catch( JSONException e ) {
+                            logger.error("listVirtualMachines(): Unable to identify expected values in JSON: " + e.getMessage());
+                            throw new CommunicationException("Unable to understand listVirtualMachines response: " + e.getMessage(), e);
                         }
-
                     }
                 }
+            });
+        }
+        finally {
+            pending.cancel();
+        }
+    }
+
+    /**
+     * Receives the servers of a listing one page at a time, once the response for the page has been read and its
+     * connection released, so that handling them may issue requests of its own.
+     */
+    private interface ServerPageHandler {
+        void handle(@Nonnull List<JSONObject> page) throws CloudException, InternalException;
+    }
+
+    /**
+     * Lists the servers of the tenant one page at a time, following the next link of each page so that tenants with
+     * more servers than the page size limit of the cloud get a complete listing. The servers of a page are parsed off
+     * the wire one at a time, so only one page of servers is held in memory.
+     * @param handler the recipient of each page, in the order the cloud returns them
+     */
+    private void listServers(@Nonnull ServerPageHandler handler) throws CloudException, InternalException {
+        final String[] marker = new String[1];
+        final List<JSONObject> page = new ArrayList<>();
+        String query = "?limit=" + SERVER_PAGE_SIZE;
+
+        while( query != null ) {
+            page.clear();
+            JSONObject links = getMethod().getServers("/servers", true, query, "servers", new AbstractMethod.ElementHandler() {
+                @Override
+                public void handle(@Nonnull JSONObject server) {
+                    marker[0] = server.optString("id", marker[0]);
+                    page.add(server);
+                }
+            });
+
+            if( page.isEmpty() ) {
+                break;
             }
-            catch( JSONException e ) {
-                logger.error("listVirtualMachines(): Unable to identify expected values in JSON: " + e.getMessage());
-                throw new CommunicationException("Unable to understand listVirtualMachines response: " + e.getMessage(), e);
+            handler.handle(page);
+
+            String next = getNextPageQuery(links, marker[0]);
+
+            query = (query.equals(next) ? null : next);
+        }
+    }
+
+    /**
+     * @param page the top-level members of a page of a list response, such as servers_links
+     * @param marker the ID of the last element of the page
+     * @return the query string of the next page, or null if this was the last page
+     */
+    private @Nullable String getNextPageQuery(@Nullable JSONObject page, @Nullable String marker) throws CloudException, InternalException {
+        if( page == null || !page.has("servers_links") ) {
+            return null;
+        }
+        try {
+            JSONArray links = page.getJSONArray("servers_links");
+
+            for( int i=0; i<links.length(); i++ ) {
+                JSONObject link = links.getJSONObject(i);
+
+                if( !"next".equals(link.optString("rel")) ) {
+                    continue;
+                }
+                String href = link.optString("href", "");
+                int idx = href.indexOf('?');
+
+                if( idx > -1 && href.contains("marker=") ) {
+                    return href.substring(idx);
+                }
+                if( marker == null ) {
+                    return null;
+                }
+                try {
+                    return "?limit=" + SERVER_PAGE_SIZE + "&marker=" + URLEncoder.encode(marker, "utf-8");
+                }
+                catch( UnsupportedEncodingException e ) {
+                    throw new InternalException(e);
+                }
             }
-            return servers;
+            return null;
         }
-        finally {
-            APITrace.end();
+        catch( JSONException e ) {
+            throw new CommunicationException("Unable to understand servers_links: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Posts a power action for a server. The response to the action tells whether the server exists, so the server,
+     * floating IPs and networks are not looked up beforehand.
+     * @throws ResourceNotFoundException the server does not exist
+     */
+    private void postServerAction(@Nonnull String vmId, @Nonnull String action) throws CloudException, InternalException {
+        Map<String,Object> json = new HashMap<>();
+
+        json.put(action, null);
+        try {
+            getMethod().postServers("/servers", vmId, new JSONObject(json), true);
+        }
+        catch( NovaException e ) {
+            if( e.getHttpCode() == HttpStatus.SC_NOT_FOUND ) {
+                throw new ResourceNotFoundException("vm", vmId);
+            }
+            throw e;
         }
     }
 
@@ -842,19 +957,10 @@ public class NovaServer extends AbstractVMSupport<NovaOpenStack> {
     public void pause(@Nonnull String vmId) throws InternalException, CloudException {
         APITrace.begin(getProvider(), "VM.pause");
         try {
-            VirtualMachine vm = getVirtualMachine(vmId);
-
-            if( vm == null ) {
-                throw new ResourceNotFoundException("vm", vmId);
-            }
             if( !getCapabilities().supportsPause() ) {
                 throw new OperationNotSupportedException("Pause/unpause is not supported in " + getProvider().getCloudName());
             }
-            Map<String,Object> json = new HashMap<>();
-
-            json.put("pause", null);
-
-            getMethod().postServers("/servers", vmId, new JSONObject(json), true);
+            postServerAction(vmId, "pause");
         }
         finally {
             APITrace.end();
@@ -865,19 +971,10 @@ public class NovaServer extends AbstractVMSupport<NovaOpenStack> {
     public void resume(@Nonnull String vmId) throws InternalException, CloudException {
         APITrace.begin(getProvider(), "VM.resume");
         try {
-            VirtualMachine vm = getVirtualMachine(vmId);
-
-            if( vm == null ) {
-                throw new ResourceNotFoundException("vm", vmId);
-            }
             if( !getCapabilities().supportsResume() ) {
                 throw new OperationNotSupportedException("Suspend/resume is not supported in " + getProvider().getCloudName());
             }
-            Map<String,Object> json = new HashMap<>();
-
-            json.put("resume", null);
-
-            getMethod().postServers("/servers", vmId, new JSONObject(json), true);
+            postServerAction(vmId, "resume");
         }
         finally {
             APITrace.end();
@@ -888,19 +985,10 @@ public class NovaServer extends AbstractVMSupport<NovaOpenStack> {
     public void start(@Nonnull String vmId) throws InternalException, CloudException {
         APITrace.begin(getProvider(), "VM.start");
         try {
-            VirtualMachine vm = getVirtualMachine(vmId);
-
-            if( vm == null ) {
-                throw new ResourceNotFoundException("vm", vmId);
-            }
             if( !getCapabilities().supportsStart() ) {
                 throw new OperationNotSupportedException("Start/stop is not supported in " + getProvider().getCloudName());
             }
-            Map<String,Object> json = new HashMap<>();
-
-            json.put("os-start", null);
-
-            getMethod().postServers("/servers", vmId, new JSONObject(json), true);
+            postServerAction(vmId, "os-start");
         }
         finally {
             APITrace.end();
@@ -911,19 +999,10 @@ public class NovaServer extends AbstractVMSupport<NovaOpenStack> {
     public void stop(@Nonnull String vmId, boolean force) throws InternalException, CloudException {
         APITrace.begin(getProvider(), "VM.stop");
         try {
-            VirtualMachine vm = getVirtualMachine(vmId);
-
-            if( vm == null ) {
-                throw new ResourceNotFoundException("vm", vmId);
-            }
             if( !getCapabilities().supportsStop() ) {
                 throw new OperationNotSupportedException("Start/stop is not supported in " + getProvider().getCloudName());
             }
-            Map<String,Object> json = new HashMap<>();
-
-            json.put("os-stop", null);
-
-            getMethod().postServers("/servers", vmId, new JSONObject(json), true);
+            postServerAction(vmId, "os-stop");
         }
         finally {
             APITrace.end();
@@ -934,19 +1013,10 @@ public class NovaServer extends AbstractVMSupport<NovaOpenStack> {
     public void suspend(@Nonnull String vmId) throws InternalException, CloudException {
         APITrace.begin(getProvider(), "VM.suspend");
         try {
-            VirtualMachine vm = getVirtualMachine(vmId);
-
-            if( vm == null ) {
-                throw new ResourceNotFoundException("vm", vmId);
-            }
             if( !getCapabilities().supportsSuspend() ) {
                 throw new OperationNotSupportedException("Suspend/resume is not supported in " + getProvider().getCloudName());
             }
-            Map<String,Object> json = new HashMap<>();
-
-            json.put("suspend", null);
-
-            getMethod().postServers("/servers", vmId, new JSONObject(json), true);
+            postServerAction(vmId, "suspend");
         }
         finally {
             APITrace.end();
@@ -957,19 +1027,10 @@ public class NovaServer extends AbstractVMSupport<NovaOpenStack> {
     public void unpause(@Nonnull String vmId) throws InternalException, CloudException {
         APITrace.begin(getProvider(), "VM.unpause");
         try {
-            VirtualMachine vm = getVirtualMachine(vmId);
-
-            if( vm == null ) {
-                throw new ResourceNotFoundException("vm", vmId);
-            }
             if( !getCapabilities().supportsUnPause() ) {
                 throw new OperationNotSupportedException("Pause/unpause is not supported in " + getProvider().getCloudName());
             }
-            Map<String,Object> json = new HashMap<>();
-
-            json.put("unpause", null);
-
-            getMethod().postServers("/servers", vmId, new JSONObject(json), true);
+            postServerAction(vmId, "unpause");
         }
         finally {
             APITrace.end();
@@ -996,12 +1057,14 @@ public class NovaServer extends AbstractVMSupport<NovaOpenStack> {
     @Override
     public void terminate(@Nonnull String vmId, @Nullable String explanation) throws InternalException, CloudException {
         APITrace.begin(getProvider(), "VM.terminate");
+        long previousDeadline = Deadline.begin(getOperationTimeout());
+
         try {
             VirtualMachine vm = getVirtualMachine(vmId);
             if( vm == null) {
                 return; // do nothing, machine is already gone
             }
-            long timeout = System.currentTimeMillis() + CalendarWrapper.HOUR;
+            long timeout = Math.min(System.currentTimeMillis() + CalendarWrapper.HOUR, Deadline.get());
 
             do {
                 try {
@@ -1028,11 +1091,14 @@ public class NovaServer extends AbstractVMSupport<NovaOpenStack> {
                         throw e;
                     }
                 }
-                try { Thread.sleep(CalendarWrapper.MINUTE); }
-                catch( InterruptedException e ) { /* ignore */ }
+                if( !Deadline.sleep(CalendarWrapper.MINUTE) ) {
+                    Deadline.check("VM.terminate");
+                    throw new InternalException("Interrupted while waiting to terminate " + vmId);
+                }
             } while( System.currentTimeMillis() < timeout );
         }
         finally {
+            Deadline.end(previousDeadline);
             APITrace.end();
         }
     }
@@ -1133,6 +1199,99 @@ public class NovaServer extends AbstractVMSupport<NovaOpenStack> {
     }
 
     protected @Nullable VirtualMachine toVirtualMachine(@Nullable JSONObject server, @Nonnull Iterable<IpAddress> ipv4, @Nonnull Iterable<IpAddress> ipv6, @Nonnull Iterable<VLAN> networks) throws JSONException, InternalException, CloudException {
+        return toVirtualMachine(server, new ServerIndex(ipv4, ipv6, networks, null));
+    }
+
+    /**
+     * Fetches the subnets of all networks with one request so that the subnets of any number of servers can then be
+     * resolved in memory.
+     * @param networks the networks servers may be attached to
+     * @return an index of the subnets, empty if there are no networks to resolve against
+     */
+    @Nonnull SubnetIndex getSubnetIndex(@Nonnull Iterable<VLAN> networks) throws CloudException, InternalException {
+        Quantum support = getQuantum();
+
+        if( support == null || !networks.iterator().hasNext() ) {
+            return new SubnetIndex(Collections.<Subnet>emptyList());
+        }
+        return new SubnetIndex(support.listAllSubnets());
+    }
+
+    /**
+     * The lookups a server is resolved against while they are being fetched. The floating IPs and networks are
+     * independent, so they are fetched concurrently on the provider executor; both IP versions come from a single
+     * floating IP request. Subnets are left to {@link #toVirtualMachine(JSONObject, ServerIndex)}, which fetches them
+     * only once an address turns out to be on a known network.
+     */
+    private final class PendingServerIndex {
+        private final Future<Map<IPVersion,List<IpAddress>>> addresses;
+        private final Future<Iterable<VLAN>>                 networks;
+
+        private ServerIndex index;
+
+        PendingServerIndex(@Nullable final NovaFloatingIP ipSupport, @Nullable final Quantum vlanSupport) {
+            ExecutorService executor = (ipSupport == null && vlanSupport == null ? null : getExecutor());
+
+            if( ipSupport == null ) {
+                addresses = null;
+            }
+            else {
+                addresses = executor.submit(Deadline.wrap(new Callable<Map<IPVersion,List<IpAddress>>>() {
+                    @Override
+                    public Map<IPVersion,List<IpAddress>> call() throws CloudException, InternalException {
+                        return ipSupport.listIpPools(false);
+                    }
+                }));
+            }
+            if( vlanSupport == null ) {
+                networks = null;
+            }
+            else {
+                networks = executor.submit(Deadline.wrap(new Callable<Iterable<VLAN>>() {
+                    @Override
+                    public Iterable<VLAN> call() throws CloudException, InternalException {
+                        return vlanSupport.listVlans();
+                    }
+                }));
+            }
+        }
+
+        /**
+         * @return the index, waiting for the lookups still in flight the first time
+         */
+        synchronized @Nonnull ServerIndex get() throws CloudException, InternalException {
+            if( index == null ) {
+                Map<IPVersion,List<IpAddress>> pools = (addresses == null ? null : AbstractMethod.await(addresses));
+                Iterable<VLAN> nets = (networks == null ? null : AbstractMethod.await(networks));
+
+                index = new ServerIndex(getPool(pools, IPVersion.IPV4), getPool(pools, IPVersion.IPV6),
+                        nets == null ? Collections.<VLAN>emptyList() : nets, null);
+            }
+            return index;
+        }
+
+        private @Nonnull Iterable<IpAddress> getPool(@Nullable Map<IPVersion,List<IpAddress>> pools, @Nonnull IPVersion version) {
+            List<IpAddress> pool = (pools == null ? null : pools.get(version));
+
+            return (pool == null ? Collections.<IpAddress>emptyList() : pool);
+        }
+
+        /**
+         * Drops the lookups that have not started yet when their results are no longer needed.
+         */
+        void cancel() {
+            for( Future<?> f : Arrays.asList(addresses, networks) ) {
+                if( f != null ) {
+                    f.cancel(false);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param index the floating IPs, networks and subnets to resolve the server against, shared across a listing
+     */
+    @Nullable VirtualMachine toVirtualMachine(@Nullable JSONObject server, @Nonnull ServerIndex index) throws JSONException, InternalException, CloudException {
         if( server == null ) {
             return null;
         }
@@ -1354,28 +1513,21 @@ public class NovaServer extends AbstractVMSupport<NovaOpenStack> {
                         }
                     }
                     if( vm.getProviderVlanId() == null ) { // && !name.equals("public") && !name.equals("private") && !name.equals("nova_fixed") ) {
-                        for( VLAN network : networks ) {
-                            if( network.getName().equals(name) ) {
-                                vm.setProviderVlanId(network.getProviderVlanId());
-                                //get subnet
-                                NetworkServices services = getProvider().getNetworkServices();
-                                VLANSupport support = services.getVlanSupport();
-                                Iterable<Subnet> subnets = support.listSubnets(network.getProviderVlanId());
-                                for (Subnet sub : subnets) {
-                                    try {
-                                        SubnetUtils utils = new SubnetUtils(sub.getCidr());
-
-                                        if( utils.getInfo().isInRange(subnet) ) {
-                                            vm.setProviderSubnetId(sub.getProviderSubnetId());
-                                            break;
-                                        }
-                                    }
-                                    catch( IllegalArgumentException arg ) {
-                                        logger.warn("Couldn't match against an invalid CIDR: "+sub.getCidr());
-                                        continue;
-                                    }
-                                }
-                                break;
+                        VLAN network = index.findNetwork(name);
+
+                        if( network != null ) {
+                            vm.setProviderVlanId(network.getProviderVlanId());
+                            //get subnet
+                            SubnetIndex subnets = index.getSubnets();
+
+                            if( subnets == null ) {
+                                subnets = getSubnetIndex(index.getNetworks());
+                                index.setSubnets(subnets);
+                            }
+                            String subnetId = subnets.find(network.getProviderVlanId(), subnet);
+
+                            if( subnetId != null ) {
+                                vm.setProviderSubnetId(subnetId);
                             }
                         }
                     }
@@ -1387,50 +1539,18 @@ public class NovaServer extends AbstractVMSupport<NovaOpenStack> {
 
             if( raw != null ) {
                 for( RawAddress addr : vm.getPublicAddresses() ) {
-                    if( addr.getVersion().equals(IPVersion.IPV4) ) {
-                        for( IpAddress a : ipv4 ) {
-                            if( a.getRawAddress().getIpAddress().equals(addr.getIpAddress()) ) {
-                                vm.setProviderAssignedIpAddressId(a.getProviderIpAddressId());
-                                break;
-                            }
-                        }
-                    }
-                    else if( addr.getVersion().equals(IPVersion.IPV6) ) {
-                        for( IpAddress a : ipv6 ) {
-                            if( a.getRawAddress().getIpAddress().equals(addr.getIpAddress()) ) {
-                                vm.setProviderAssignedIpAddressId(a.getProviderIpAddressId());
-                                break;
-                            }
-                        }
-                    }
-                }
-            }
-            if( vm.getProviderAssignedIpAddressId() == null ) {
-                for( IpAddress addr : ipv4 ) {
-                    String serverId = addr.getServerId();
+                    IpAddress a = index.findByAddress(addr);
 
-                    if( serverId != null && serverId.equals(vm.getProviderVirtualMachineId()) ) {
-                        vm.setProviderAssignedIpAddressId(addr.getProviderIpAddressId());
-                        break;
-                    }
-                }
-                if( vm.getProviderAssignedIpAddressId() == null ) {
-                    for( IpAddress addr : ipv6 ) {
-                        String serverId = addr.getServerId();
-
-                        if( serverId != null && addr.getServerId().equals(vm.getProviderVirtualMachineId()) ) {
-                            vm.setProviderAssignedIpAddressId(addr.getProviderIpAddressId());
-                            break;
-                        }
+                    if( a != null ) {
+                        vm.setProviderAssignedIpAddressId(a.getProviderIpAddressId());
                     }
                 }
             }
             if( vm.getProviderAssignedIpAddressId() == null ) {
-                for( IpAddress addr : ipv6 ) {
-                    if( addr.getServerId().equals(vm.getProviderVirtualMachineId()) ) {
-                        vm.setProviderAssignedIpAddressId(addr.getProviderIpAddressId());
-                        break;
-                    }
+                IpAddress addr = index.findByServer(vm.getProviderVirtualMachineId());
+
+                if( addr != null ) {
+                    vm.setProviderAssignedIpAddressId(addr.getProviderIpAddressId());
                 }
             }
         }
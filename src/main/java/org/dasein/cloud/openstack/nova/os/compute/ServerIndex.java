@@ -0,0 +1,118 @@
+/**
+ * Copyright (C) 2009-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.openstack.nova.os.compute;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.dasein.cloud.network.IPVersion;
+import org.dasein.cloud.network.IpAddress;
+import org.dasein.cloud.network.RawAddress;
+import org.dasein.cloud.network.VLAN;
+
+/**
+ * The floating IPs, networks and subnets a server is resolved against, indexed once so that converting each server of
+ * a listing takes constant-time lookups rather than scans of every floating IP and network. Where several entries
+ * share a key, the first one wins, as it did with the scans.
+ * @since 2016.02
+ */
+final class ServerIndex {
+    private final Map<String,IpAddress> ipv4ByAddress = new HashMap<>();
+    private final Map<String,IpAddress> ipv4ByServer  = new HashMap<>();
+    private final Map<String,IpAddress> ipv6ByAddress = new HashMap<>();
+    private final Map<String,IpAddress> ipv6ByServer  = new HashMap<>();
+    private final Iterable<VLAN>        networks;
+    private final Map<String,VLAN>      networksByName = new HashMap<>();
+
+    private volatile SubnetIndex subnets;
+
+    /**
+     * @param subnets the subnets of the networks if already fetched, otherwise null to fetch them on first use
+     */
+    ServerIndex(@Nonnull Iterable<IpAddress> ipv4, @Nonnull Iterable<IpAddress> ipv6, @Nonnull Iterable<VLAN> networks, @Nullable SubnetIndex subnets) {
+        index(ipv4, ipv4ByAddress, ipv4ByServer);
+        index(ipv6, ipv6ByAddress, ipv6ByServer);
+        for( VLAN network : networks ) {
+            if( network.getName() != null && !networksByName.containsKey(network.getName()) ) {
+                networksByName.put(network.getName(), network);
+            }
+        }
+        this.networks = networks;
+        this.subnets = subnets;
+    }
+
+    static private void index(@Nonnull Iterable<IpAddress> addresses, @Nonnull Map<String,IpAddress> byAddress, @Nonnull Map<String,IpAddress> byServer) {
+        for( IpAddress address : addresses ) {
+            RawAddress raw = address.getRawAddress();
+            String serverId = address.getServerId();
+
+            if( raw != null && raw.getIpAddress() != null && !byAddress.containsKey(raw.getIpAddress()) ) {
+                byAddress.put(raw.getIpAddress(), address);
+            }
+            if( serverId != null && !byServer.containsKey(serverId) ) {
+                byServer.put(serverId, address);
+            }
+        }
+    }
+
+    /**
+     * @return the floating IP with the specified address, or null if it is not in the pool
+     */
+    @Nullable IpAddress findByAddress(@Nonnull RawAddress address) {
+        if( IPVersion.IPV4.equals(address.getVersion()) ) {
+            return ipv4ByAddress.get(address.getIpAddress());
+        }
+        if( IPVersion.IPV6.equals(address.getVersion()) ) {
+            return ipv6ByAddress.get(address.getIpAddress());
+        }
+        return null;
+    }
+
+    /**
+     * @return the floating IP assigned to the specified server, IPv4 first, or null if it has none
+     */
+    @Nullable IpAddress findByServer(@Nonnull String serverId) {
+        IpAddress address = ipv4ByServer.get(serverId);
+
+        return (address == null ? ipv6ByServer.get(serverId) : address);
+    }
+
+    /**
+     * @return the network with the specified name, or null if there is none
+     */
+    @Nullable VLAN findNetwork(@Nonnull String name) {
+        return networksByName.get(name);
+    }
+
+    @Nonnull Iterable<VLAN> getNetworks() {
+        return networks;
+    }
+
+    @Nullable SubnetIndex getSubnets() {
+        return subnets;
+    }
+
+    void setSubnets(@Nonnull SubnetIndex subnets) {
+        this.subnets = subnets;
+    }
+}
@@ -0,0 +1,285 @@
+/**
+ * Copyright (C) 2009-2015 Dell, Inc.
+ * See annotations for authorship information
+ *
+ * ====================================================================
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * ====================================================================
+ */
+
+package org.dasein.cloud.openstack.nova.os.compute;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.apache.log4j.Logger;
+import org.dasein.cloud.network.Subnet;
+import org.dasein.cloud.openstack.nova.os.NovaOpenStack;
+
+/**
+ * Resolves the subnet an address belongs to from subnets fetched once, instead of listing the subnets of a network
+ * for every address. Each network has a binary prefix trie per address family; a lookup walks the bits of the
+ * address and returns the longest matching subnet.
+ * @since 2016.02
+ */
+final class SubnetIndex {
+    static private final Logger logger = NovaOpenStack.getLogger(SubnetIndex.class, "std");
+
+    static private final class Node {
+        private Node   one;
+        private String subnetId;
+        private Node   zero;
+    }
+
+    /**
+     * Parses an IP address literal by hand, so that a value which is not a literal is never handed to the resolver.
+     * An IPv4-mapped IPv6 address yields the IPv4 address, as {@link java.net.InetAddress} would.
+     * @param address an IPv4 or IPv6 address literal
+     * @return the address bytes, or null if the value is not an address literal
+     */
+    static @Nullable byte[] toBytes(@Nullable String address) {
+        if( address == null ) {
+            return null;
+        }
+        address = address.trim();
+        if( address.indexOf(':') < 0 ) {
+            return toIpv4Bytes(address);
+        }
+        int zone = address.indexOf('%');
+
+        if( zone > -1 ) {
+            address = address.substring(0, zone);
+        }
+        int gap = address.indexOf("::");
+
+        if( gap > -1 && address.indexOf("::", gap + 1) > -1 ) {
+            return null;
+        }
+        byte[] head = toGroups(gap > -1 ? address.substring(0, gap) : address, gap < 0);
+        byte[] tail = (gap > -1 ? toGroups(address.substring(gap + 2), true) : new byte[0]);
+
+        if( head == null || tail == null ) {
+            return null;
+        }
+        int length = head.length + tail.length;
+
+        if( gap > -1 ? length > 14 : length != 16 ) {
+            return null;
+        }
+        byte[] bytes = new byte[16];
+
+        System.arraycopy(head, 0, bytes, 0, head.length);
+        System.arraycopy(tail, 0, bytes, 16 - tail.length, tail.length);
+        for( int i=0; i<10; i++ ) {
+            if( bytes[i] != 0 ) {
+                return bytes;
+            }
+        }
+        if( bytes[10] == (byte)0xff && bytes[11] == (byte)0xff ) {
+            return Arrays.copyOfRange(bytes, 12, 16);
+        }
+        return bytes;
+    }
+
+    /**
+     * @param groups colon-separated groups of one to four hex digits, or an empty string
+     * @param last true if the groups end the address, the only place where a dotted IPv4 address may appear
+     * @return the bytes of the groups, or null if they are malformed
+     */
+    static private @Nullable byte[] toGroups(@Nonnull String groups, boolean last) {
+        if( groups.isEmpty() ) {
+            return new byte[0];
+        }
+        String[] parts = groups.split(":", -1);
+        byte[] bytes = new byte[parts.length * 2 + 2];
+        int length = 0;
+
+        for( int i=0; i<parts.length; i++ ) {
+            String part = parts[i];
+
+            if( last && i == parts.length - 1 && part.indexOf('.') > -1 ) {
+                byte[] ipv4 = toIpv4Bytes(part);
+
+                if( ipv4 == null ) {
+                    return null;
+                }
+                System.arraycopy(ipv4, 0, bytes, length, 4);
+                length += 4;
+                continue;
+            }
+            if( part.isEmpty() || part.length() > 4 ) {
+                return null;
+            }
+            int value = 0;
+
+            for( int j=0; j<part.length(); j++ ) {
+                char c = part.charAt(j);
+                int digit;
+
+                if( c >= '0' && c <= '9' ) {
+                    digit = c - '0';
+                }
+                else if( c >= 'a' && c <= 'f' ) {
+                    digit = c - 'a' + 10;
+                }
+                else if( c >= 'A' && c <= 'F' ) {
+                    digit = c - 'A' + 10;
+                }
+                else {
+                    return null;
+                }
+                value = (value << 4) | digit;
+            }
+            bytes[length++] = (byte)(value >> 8);
+            bytes[length++] = (byte)value;
+        }
+        return Arrays.copyOf(bytes, length);
+    }
+
+    /**
+     * @param address a dotted IPv4 address literal
+     * @return the address bytes, or null if the value is not a dotted IPv4 address
+     */
+    static private @Nullable byte[] toIpv4Bytes(@Nonnull String address) {
+        String[] parts = address.split("\\.", -1);
+
+        if( parts.length != 4 ) {
+            return null;
+        }
+        byte[] bytes = new byte[4];
+
+        for( int i=0; i<4; i++ ) {
+            String part = parts[i];
+
+            if( part.isEmpty() || part.length() > 3 ) {
+                return null;
+            }
+            int octet = 0;
+
+            for( int j=0; j<part.length(); j++ ) {
+                char c = part.charAt(j);
+
+                if( c < '0' || c > '9' ) {
+                    return null;
+                }
+                octet = octet * 10 + (c - '0');
+            }
+            if( octet > 255 ) {
+                return null;
+            }
+            bytes[i] = (byte)octet;
+        }
+        return bytes;
+    }
+
+    static private boolean bit(@Nonnull byte[] bytes, int index) {
+        return ((bytes[index / 8] >> (7 - index % 8)) & 1) == 1;
+    }
+
+    static private @Nonnull String key(@Nonnull String vlanId, @Nonnull byte[] bytes) {
+        return vlanId + "/" + bytes.length;
+    }
+
+    private final Map<String,Node> roots = new HashMap<>();
+    private int size;
+
+    SubnetIndex(@Nonnull Iterable<Subnet> subnets) {
+        for( Subnet subnet : subnets ) {
+            add(subnet.getProviderVlanId(), subnet.getCidr(), subnet.getProviderSubnetId());
+        }
+    }
+
+    private void add(@Nullable String vlanId, @Nullable String cidr, @Nullable String subnetId) {
+        if( vlanId == null || subnetId == null || cidr == null ) {
+            return;
+        }
+        int idx = cidr.indexOf('/');
+        byte[] bytes = toBytes(idx > -1 ? cidr.substring(0, idx) : cidr);
+        int length = -1;
+
+        if( bytes != null ) {
+            try {
+                length = (idx > -1 ? Integer.parseInt(cidr.substring(idx + 1).trim()) : bytes.length * 8);
+            }
+            catch( NumberFormatException ignore ) {
+                // reported below
+            }
+        }
+        if( bytes == null || length < 0 || length > bytes.length * 8 ) {
+            logger.warn("Couldn't match against an invalid CIDR: " + cidr);
+            return;
+        }
+        String key = key(vlanId, bytes);
+        Node node = roots.get(key);
+
+        if( node == null ) {
+            node = new Node();
+            roots.put(key, node);
+        }
+        for( int i=0; i<length; i++ ) {
+            if( bit(bytes, i) ) {
+                if( node.one == null ) {
+                    node.one = new Node();
+                }
+                node = node.one;
+            }
+            else {
+                if( node.zero == null ) {
+                    node.zero = new Node();
+                }
+                node = node.zero;
+            }
+        }
+        if( node.subnetId == null ) {
+            node.subnetId = subnetId;
+            size++;
+        }
+    }
+
+    /**
+     * @param vlanId the network the address is on
+     * @param address the address to resolve
+     * @return the ID of the most specific subnet of the network containing the address, or null if there is none
+     */
+    @Nullable String find(@Nonnull String vlanId, @Nullable String address) {
+        byte[] bytes = toBytes(address);
+
+        if( bytes == null ) {
+            return null;
+        }
+        Node node = roots.get(key(vlanId, bytes));
+        String match = null;
+
+        for( int i=0; node != null; i++ ) {
+            if( node.subnetId != null ) {
+                match = node.subnetId;
+            }
+            if( i == bytes.length * 8 ) {
+                break;
+            }
+            node = (bit(bytes, i) ? node.one : node.zero);
+        }
+        return match;
+    }
+
+    /**
+     * @return the number of subnets indexed
+     */
+    int size() {
+        return size;
+    }
+}
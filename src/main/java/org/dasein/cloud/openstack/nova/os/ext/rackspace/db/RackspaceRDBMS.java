@@ -22,6 +22,7 @@ package org.dasein.cloud.openstack.nova.os.ext.rackspace.db;
 import org.apache.log4j.Logger;
 import org.dasein.cloud.*;
 import org.dasein.cloud.identity.ServiceAction;
+import org.dasein.cloud.openstack.nova.os.Deadline;
 import org.dasein.cloud.openstack.nova.os.NovaMethod;
 import org.dasein.cloud.openstack.nova.os.NovaOpenStack;
 import org.dasein.cloud.platform.*;
@@ -434,8 +435,10 @@ public class RackspaceRDBMS extends AbstractRelationalDatabaseSupport<NovaOpenSt
                 catch( Throwable ignore ) {
                     // ignore
                 }
-                try { Thread.sleep(15000L); }
-                catch( Throwable ignore ) { }
+                if( !Deadline.sleep(15000L) ) {
+                    Deadline.check("RDBMS.removeDatabase");
+                    break;
+                }
             }
         }
         finally {
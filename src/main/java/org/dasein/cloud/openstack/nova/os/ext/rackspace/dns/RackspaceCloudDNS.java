@@ -26,6 +26,7 @@ import org.dasein.cloud.network.DNSRecord;
 import org.dasein.cloud.network.DNSRecordType;
 import org.dasein.cloud.network.DNSSupport;
 import org.dasein.cloud.network.DNSZone;
+import org.dasein.cloud.openstack.nova.os.Deadline;
 import org.dasein.cloud.openstack.nova.os.NovaException;
 import org.dasein.cloud.openstack.nova.os.NovaMethod;
 import org.dasein.cloud.openstack.nova.os.NovaOpenStack;
@@ -732,8 +733,10 @@ public class RackspaceCloudDNS implements DNSSupport {
             catch( JSONException e ) {
                 throw new CommunicationException("Unable to understand response: " + e.getMessage(), e);
             }
-            try { Thread.sleep(CalendarWrapper.SECOND * 30); }
-            catch( InterruptedException ignore ) { }
+            if( !Deadline.sleep(CalendarWrapper.SECOND * 30) ) {
+                Deadline.check("DNS.waitForJob");
+                break;
+            }
         }
         throw new GeneralCloudException("Operation timed out", CloudErrorType.GENERAL);
     }
@@ -24,6 +24,7 @@ import org.apache.log4j.Logger;
 import org.dasein.cloud.*;
 import org.dasein.cloud.compute.VirtualMachine;
 import org.dasein.cloud.network.*;
+import org.dasein.cloud.openstack.nova.os.Deadline;
 import org.dasein.cloud.openstack.nova.os.NovaException;
 import org.dasein.cloud.openstack.nova.os.NovaMethod;
 import org.dasein.cloud.openstack.nova.os.NovaOpenStack;
@@ -75,8 +76,10 @@ public class RackspaceLoadBalancers extends AbstractLoadBalancerSupport<NovaOpen
                 if( !LoadBalancerState.PENDING.equals(lb.getCurrentState()) ) {
                     break;
                 }
-                try { Thread.sleep(15000L); }
-                catch( InterruptedException ignore ) { }
+                if( !Deadline.sleep(15000L) ) {
+                    Deadline.check("LB.addIPEndpoints");
+                    break;
+                }
                 try {
                     lb = getLoadBalancer(toLoadBalancerId);
                     if( lb == null ) {
@@ -160,8 +163,10 @@ public class RackspaceLoadBalancers extends AbstractLoadBalancerSupport<NovaOpen
                 if( !LoadBalancerState.PENDING.equals(lb.getCurrentState()) ) {
                     break;
                 }
-                try { Thread.sleep(15000L); }
-                catch( InterruptedException ignore ) { }
+                if( !Deadline.sleep(15000L) ) {
+                    Deadline.check("LB.addServers");
+                    break;
+                }
                 try {
                     lb = getLoadBalancer(toLoadBalancerId);
                     if( lb == null ) {
@@ -732,8 +737,10 @@ public class RackspaceLoadBalancers extends AbstractLoadBalancerSupport<NovaOpen
                 catch( Throwable ignore ) {
                     // ignore
                 }
-                try { Thread.sleep(15000L); }
-                catch( InterruptedException ignore ) { }
+                if( !Deadline.sleep(15000L) ) {
+                    Deadline.check("LB.removeLoadBalancer");
+                    break;
+                }
             }
 
             NovaMethod method = new NovaMethod(provider);
@@ -750,8 +757,10 @@ public class RackspaceLoadBalancers extends AbstractLoadBalancerSupport<NovaOpen
                         throw e;
                     }
                 }
-                try { Thread.sleep(CalendarWrapper.MINUTE); }
-                catch( InterruptedException ignore ) { }
+                if( !Deadline.sleep(CalendarWrapper.MINUTE) ) {
+                    Deadline.check("LB.removeLoadBalancer");
+                    break;
+                }
             } while( System.currentTimeMillis() < timeout );
         }
         finally {
@@ -878,8 +887,10 @@ public class RackspaceLoadBalancers extends AbstractLoadBalancerSupport<NovaOpen
                 throw new ResourceNotFoundException("load balancer", fromLoadBalancerId);
             }
             while( LoadBalancerState.PENDING.equals(lb.getCurrentState()) ) {
-                try { Thread.sleep(15000L); }
-                catch( InterruptedException ignore ) { }
+                if( !Deadline.sleep(15000L) ) {
+                    Deadline.check("LB.removeIPEndpoints");
+                    break;
+                }
                 lb = getLoadBalancer(fromLoadBalancerId);
                 if( lb == null || LoadBalancerState.TERMINATED.equals(lb.getCurrentState()) ) {
                     throw new ResourceNotFoundException("load balancer", fromLoadBalancerId);
@@ -919,8 +930,10 @@ public class RackspaceLoadBalancers extends AbstractLoadBalancerSupport<NovaOpen
                 throw new ResourceNotFoundException("load balancer", fromLoadBalancerId);
             }
             while( LoadBalancerState.PENDING.equals(lb.getCurrentState()) ) {
-                try { Thread.sleep(15000L); }
-                catch( InterruptedException ignore ) { }
+                if( !Deadline.sleep(15000L) ) {
+                    Deadline.check("LB.removeServers");
+                    break;
+                }
                 lb = getLoadBalancer(fromLoadBalancerId);
                 if( lb == null || LoadBalancerState.TERMINATED.equals(lb.getCurrentState()) ) {
                     throw new ResourceNotFoundException("load balancer", fromLoadBalancerId);
@@ -26,6 +26,7 @@ import org.dasein.cloud.identity.AbstractShellKeySupport;
 import org.dasein.cloud.identity.SSHKeypair;
 import org.dasein.cloud.identity.ServiceAction;
 import org.dasein.cloud.identity.ShellKeyCapabilities;
+import org.dasein.cloud.openstack.nova.os.Deadline;
 import org.dasein.cloud.openstack.nova.os.NovaException;
 import org.dasein.cloud.openstack.nova.os.NovaMethod;
 import org.dasein.cloud.openstack.nova.os.NovaOpenStack;
@@ -112,8 +113,10 @@ public class NovaKeypair extends AbstractShellKeySupport<NovaOpenStack> {
                         throw e;
                     }
                 }
-                try { Thread.sleep(CalendarWrapper.MINUTE); }
-                catch( InterruptedException e ) { /* ignore */ }
+                if( !Deadline.sleep(CalendarWrapper.MINUTE) ) {
+                    Deadline.check("Keypair.deleteKeypair");
+                    break;
+                }
             } while( System.currentTimeMillis() < timeout );
         }
         finally {
@@ -6,6 +6,7 @@ import org.apache.log4j.Logger;
 import org.dasein.cloud.*;
 import org.dasein.cloud.compute.VirtualMachine;
 import org.dasein.cloud.network.*;
+import org.dasein.cloud.openstack.nova.os.Deadline;
 import org.dasein.cloud.openstack.nova.os.NovaException;
 import org.dasein.cloud.openstack.nova.os.NovaMethod;
 import org.dasein.cloud.openstack.nova.os.NovaOpenStack;
@@ -832,8 +833,10 @@ public class LoadBalancerSupportImpl extends AbstractLoadBalancerSupport<NovaOpe
             LoadBalancer lb = getLoadBalancer(loadBalancerId);
 
             while( LoadBalancerState.PENDING.equals(lb.getCurrentState()) && timeout > System.currentTimeMillis() ) {
-                try { Thread.sleep(15000L); }
-                catch( InterruptedException ignore ) { }
+                if( !Deadline.sleep(15000L) ) {
+                    Deadline.check("LB.remove");
+                    break;
+                }
                 try {
                     lb = getLoadBalancer(loadBalancerId);
                     if( lb == null ) {
@@ -866,8 +869,10 @@ public class LoadBalancerSupportImpl extends AbstractLoadBalancerSupport<NovaOpe
                         throw e;
                     }
                 }
-                try { Thread.sleep(CalendarWrapper.MINUTE); }
-                catch( InterruptedException ignore ) { }
+                if( !Deadline.sleep(CalendarWrapper.MINUTE) ) {
+                    Deadline.check("LB.remove");
+                    break;
+                }
             } while( System.currentTimeMillis() < timeout );
         }
         finally {
@@ -31,6 +31,7 @@ import org.dasein.cloud.network.IPAddressCapabilities;
 import org.dasein.cloud.network.IpAddressSupport;
 import org.dasein.cloud.network.IpForwardingRule;
 import org.dasein.cloud.network.Protocol;
+import org.dasein.cloud.openstack.nova.os.Deadline;
 import org.dasein.cloud.openstack.nova.os.NovaException;
 import org.dasein.cloud.openstack.nova.os.NovaMethod;
 import org.dasein.cloud.openstack.nova.os.NovaOpenStack;
@@ -50,8 +51,6 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
 /**
@@ -68,8 +67,6 @@ public class NovaFloatingIP extends AbstractIpAddressSupport<NovaOpenStack> {
     static public final String QUANTIUM_TARGET = "/floating-ips";
     static public final String NOVA_TARGET     = "/os-floating-ips";
 
-    static private final ExecutorService threadPool = Executors.newFixedThreadPool(10);
-    
     NovaFloatingIP(NovaOpenStack cloud) {
         super(cloud);
     }
@@ -260,15 +257,12 @@ public class NovaFloatingIP extends AbstractIpAddressSupport<NovaOpenStack> {
     @Nonnull
     @Override
     public Future<Iterable<IpAddress>> listIpPoolConcurrently(@Nonnull IPVersion ipVersion, boolean unassignedOnly) throws InternalException, CloudException {
-        return threadPool.submit(
-            new ListIpPoolCallable(
-                ipVersion,
-                unassignedOnly
-            )
-        );
+        Callable<Iterable<IpAddress>> task = new ListIpPoolCallable(ipVersion, unassignedOnly);
+
+        return getProvider().getExecutor().submit(Deadline.wrap(task));
     }
 
-    public class ListIpPoolCallable implements Callable {
+    public class ListIpPoolCallable implements Callable<Iterable<IpAddress>> {
         IPVersion version;
         boolean unassignedOnly;
 
@@ -281,39 +275,81 @@ public class NovaFloatingIP extends AbstractIpAddressSupport<NovaOpenStack> {
             if( !getVersions().contains(version) ) {
                 return Collections.emptyList();
             }
-            NovaMethod method = new NovaMethod(getProvider());
-            JSONObject ob = method.getServers(getEndpoint(), null, false);
             ArrayList<IpAddress> addresses = new ArrayList<IpAddress>();
 
-            try {
-                if( ob != null && ob.has("floating_ips") ) {
-                    JSONArray list = ob.getJSONArray("floating_ips");
+            for( IpAddress addr : loadIpPool(unassignedOnly) ) {
+                if( version.equals(addr.getVersion()) ) {
+                    addresses.add(addr);
+                }
+            }
+            return addresses;
+        }
+    }
 
-                    for( int i=0; i<list.length(); i++ ) {
-                        JSONObject json = list.getJSONObject(i);
+    /**
+     * Lists the pools of every IP version with a single request, for callers that would otherwise list the IPv4 and
+     * IPv6 pools one after the other.
+     * @param unassignedOnly true to list only the addresses not assigned to a server
+     * @return the addresses of each supported IP version
+     */
+    public @Nonnull Map<IPVersion,List<IpAddress>> listIpPools(boolean unassignedOnly) throws InternalException, CloudException {
+        APITrace.begin(getProvider(), "IpAddress.listIpPools");
+        try {
+            Map<IPVersion,List<IpAddress>> pools = new HashMap<IPVersion, List<IpAddress>>();
 
-                        try {
-                            IpAddress addr = toIP(json);
+            for( IPVersion version : getVersions() ) {
+                pools.put(version, new ArrayList<IpAddress>());
+            }
+            if( pools.isEmpty() ) {
+                return pools;
+            }
+            for( IpAddress addr : loadIpPool(unassignedOnly) ) {
+                List<IpAddress> pool = pools.get(addr.getVersion());
 
-                            if( addr != null ) {
-                                if( !unassignedOnly || addr.getServerId() == null ) {
-                                    addresses.add(addr);
-                                }
+                if( pool != null ) {
+                    pool.add(addr);
+                }
+            }
+            return pools;
+        }
+        finally {
+            APITrace.end();
+        }
+    }
+
+    private @Nonnull List<IpAddress> loadIpPool(boolean unassignedOnly) throws CloudException, InternalException {
+        NovaMethod method = new NovaMethod(getProvider());
+        JSONObject ob = method.getServers(getEndpoint(), null, false);
+        ArrayList<IpAddress> addresses = new ArrayList<IpAddress>();
+
+        try {
+            if( ob != null && ob.has("floating_ips") ) {
+                JSONArray list = ob.getJSONArray("floating_ips");
+
+                for( int i=0; i<list.length(); i++ ) {
+                    JSONObject json = list.getJSONObject(i);
+
+                    try {
+                        IpAddress addr = toIP(json);
+
+                        if( addr != null ) {
+                            if( !unassignedOnly || addr.getServerId() == null ) {
+                                addresses.add(addr);
                             }
                         }
-                        catch( JSONException e ) {
-                            logger.error("Invalid JSON from cloud: " + e.getMessage());
-                            throw new CommunicationException("Invalid JSON from cloud: " + e.getMessage(), e);
-                        }
+                    }
+                    catch( JSONException e ) {
+                        logger.error("Invalid JSON from cloud: " + e.getMessage());
+                        throw new CommunicationException("Invalid JSON from cloud: " + e.getMessage(), e);
                     }
                 }
             }
-            catch( JSONException e ) {
-                logger.error("list(): Unable to identify expected values in JSON: " + e.getMessage());
-                throw new CommunicationException("Missing JSON element for floating IP in " + ob.toString(), e);
-            }
-            return addresses;
         }
+        catch( JSONException e ) {
+            logger.error("list(): Unable to identify expected values in JSON: " + e.getMessage());
+            throw new CommunicationException("Missing JSON element for floating IP in " + ob.toString(), e);
+        }
+        return addresses;
     }
 
     @Override
@@ -402,8 +438,10 @@ public class NovaFloatingIP extends AbstractIpAddressSupport<NovaOpenStack> {
                         throw e;
                     }
                 }
-                try { Thread.sleep(CalendarWrapper.MINUTE); }
-                catch( InterruptedException e ) { /* ignore */ }
+                if( !Deadline.sleep(CalendarWrapper.MINUTE) ) {
+                    Deadline.check("IpAddress.releaseFromPool");
+                    break;
+                }
             } while( System.currentTimeMillis() < timeout );
         }
         finally {
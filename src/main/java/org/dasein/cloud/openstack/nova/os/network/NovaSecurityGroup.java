@@ -32,6 +32,7 @@ import org.dasein.cloud.network.Permission;
 import org.dasein.cloud.network.Protocol;
 import org.dasein.cloud.network.RuleTarget;
 import org.dasein.cloud.network.RuleTargetType;
+import org.dasein.cloud.openstack.nova.os.Deadline;
 import org.dasein.cloud.openstack.nova.os.NovaException;
 import org.dasein.cloud.openstack.nova.os.NovaMethod;
 import org.dasein.cloud.openstack.nova.os.NovaOpenStack;
@@ -190,8 +191,10 @@ public class NovaSecurityGroup extends AbstractFirewallSupport<NovaOpenStack> {
                         throw e;
                     }
                 }
-                try { Thread.sleep(CalendarWrapper.MINUTE); }
-                catch( InterruptedException e ) { /* ignore */ }
+                if( !Deadline.sleep(CalendarWrapper.MINUTE) ) {
+                    Deadline.check("Firewall.delete");
+                    break;
+                }
             } while( System.currentTimeMillis() < timeout );
         }
         finally {
@@ -500,8 +503,10 @@ public class NovaSecurityGroup extends AbstractFirewallSupport<NovaOpenStack> {
                         throw e;
                     }
                 }
-                try { Thread.sleep(CalendarWrapper.MINUTE); }
-                catch( InterruptedException e ) { /* ignore */ }
+                if( !Deadline.sleep(CalendarWrapper.MINUTE) ) {
+                    Deadline.check("Firewall.revoke");
+                    break;
+                }
             } while( System.currentTimeMillis() < timeout );
         }
         finally {
@@ -639,17 +639,32 @@ public class Quantum extends AbstractVLANSupport<NovaOpenStack> {
     public @Nonnull Iterable<Subnet> listSubnets(@Nonnull String inVlanId) throws CloudException, InternalException {
         APITrace.begin(getProvider(), "VLAN.listSubnets");
         try {
-            if( !getNetworkType().equals(QuantumType.QUANTUM) ) {
-                return Collections.emptyList();
-            }
-            JSONObject ob;
+            ArrayList<Subnet> subnets = new ArrayList<Subnet>();
 
-            if (getNetworkType().equals(QuantumType.QUANTUM) ) {
-                ob = getMethod().getNetworks(getSubnetResource(), null, false);
+            for( Subnet subnet : listAllSubnets() ) {
+                if( subnet.getProviderVlanId().equals(inVlanId) ) {
+                    subnets.add(subnet);
+                }
             }
-            else {
-                ob = getMethod().getServers(getSubnetResource(), null, false);
+            return subnets;
+        }
+        finally {
+            APITrace.end();
+        }
+    }
+
+    /**
+     * Lists the subnets of every network with a single request, for callers that need to resolve subnets across
+     * many networks.
+     * @return all subnets visible to the tenant
+     */
+    public @Nonnull Iterable<Subnet> listAllSubnets() throws CloudException, InternalException {
+        APITrace.begin(getProvider(), "VLAN.listAllSubnets");
+        try {
+            if( !getNetworkType().equals(QuantumType.QUANTUM) ) {
+                return Collections.emptyList();
             }
+            JSONObject ob = getMethod().getNetworks(getSubnetResource(), null, false);
             ArrayList<Subnet> subnets = new ArrayList<Subnet>();
 
             try {
@@ -659,7 +674,7 @@ public class Quantum extends AbstractVLANSupport<NovaOpenStack> {
                     for( int i=0; i<list.length(); i++ ) {
                         Subnet subnet = toSubnet(list.getJSONObject(i), null);
 
-                        if( subnet != null && subnet.getProviderVlanId().equals(inVlanId) ) {
+                        if( subnet != null ) {
                             subnets.add(subnet);
                         }
                     }
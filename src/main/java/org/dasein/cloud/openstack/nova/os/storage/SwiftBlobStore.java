@@ -34,6 +34,7 @@ import org.apache.log4j.Logger;
 import org.dasein.cloud.*;
 import org.dasein.cloud.identity.ServiceAction;
 import org.dasein.cloud.openstack.nova.os.AuthenticationContext;
+import org.dasein.cloud.openstack.nova.os.Deadline;
 import org.dasein.cloud.openstack.nova.os.NovaOpenStack;
 import org.dasein.cloud.openstack.nova.os.SwiftMethod;
 import org.dasein.cloud.storage.AbstractBlobStoreSupport;
@@ -308,6 +309,14 @@ public class SwiftBlobStore extends AbstractBlobStoreSupport<NovaOpenStack> {
             catch( IOException e ) {
                 throw new InternalException(e);
             }
+            finally {
+                try {
+                    input.close();
+                }
+                catch( IOException ignore ) {
+                    // connection has already been discarded
+                }
+            }
         }
         finally {
             APITrace.end();
@@ -591,8 +600,9 @@ public class SwiftBlobStore extends AbstractBlobStoreSupport<NovaOpenStack> {
                             throw e;
                         }
                     }
-                    try { Thread.sleep(retries * 10000L); }
-                    catch( InterruptedException ignore ) { }
+                    if( !Deadline.sleep(retries * 10000L) ) {
+                        Deadline.check("Blob.renameBucket");
+                    }
                 }
             }
             boolean ok = true;
@@ -2,18 +2,41 @@ package org.dasein.cloud.openstack.nova.os;
 
 import org.apache.http.*;
 import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.impl.client.DefaultHttpClient;
 import org.dasein.cloud.CloudErrorType;
 import org.dasein.cloud.CloudException;
 import org.dasein.cloud.InternalException;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
 import org.junit.Test;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringReader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.*;
 
 /**
@@ -82,4 +105,204 @@ public class AbstractMethodTest {
         catch( IOException e ) {
         }
     }
+
+    @Test
+    public void streamListHandsOutEachElement() throws Exception {
+        final List<String> ids = new ArrayList<String>();
+        String json = "{\"servers\": [{\"id\": \"a\", \"addresses\": {\"private\": []}}, {\"id\": \"b\"}], \"servers_links\": [{\"rel\": \"next\", \"href\": \"bogus\"}]}";
+
+        JSONObject rest = AbstractMethod.streamList(new JSONTokener(new StringReader(json)), "servers", new AbstractMethod.ElementHandler() {
+            @Override
+            public void handle(JSONObject element) {
+                try {
+                    ids.add(element.getString("id"));
+                }
+                catch( JSONException e ) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+        assertEquals("Streamed elements are not as expected", Arrays.asList("a", "b"), ids);
+        assertTrue("Remaining members should include the links", rest.has("servers_links"));
+        assertFalse("Remaining members should not include the streamed array", rest.has("servers"));
+    }
+
+    @Test
+    public void coalesceSharesInFlightCall() throws Exception {
+        final ConcurrentHashMap<String,FutureTask<String>> inProgress = new ConcurrentHashMap<String, FutureTask<String>>();
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Callable<String> call = new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                calls.incrementAndGet();
+                started.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return "{\"servers\": []}";
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            Future<String> first = executor.submit(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    return AbstractMethod.coalesce(inProgress, "token GET /servers", call);
+                }
+            });
+            assertTrue("First call did not start", started.await(5, TimeUnit.SECONDS));
+            Future<String> second = executor.submit(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    return AbstractMethod.coalesce(inProgress, "token GET /servers", call);
+                }
+            });
+            Thread.sleep(100);
+            release.countDown();
+            assertEquals("First caller got the wrong body", "{\"servers\": []}", first.get(5, TimeUnit.SECONDS));
+            assertEquals("Second caller got the wrong body", "{\"servers\": []}", second.get(5, TimeUnit.SECONDS));
+            assertEquals("Identical concurrent calls should be made once", 1, calls.get());
+            assertTrue("Completed call should no longer be in progress", inProgress.isEmpty());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(expected = CloudException.class)
+    public void coalescePropagatesCloudException() throws Exception {
+        AbstractMethod.coalesce(new ConcurrentHashMap<String, FutureTask<String>>(), "token GET /servers", new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                throw new CloudException("failed");
+            }
+        });
+    }
+
+    @Test
+    public void coalesceWaitsNoLongerThanDeadline() throws Exception {
+        final ConcurrentHashMap<String,FutureTask<String>> inProgress = new ConcurrentHashMap<String, FutureTask<String>>();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Callable<String> call = new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                started.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return "{\"servers\": []}";
+            }
+        };
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            executor.submit(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    return AbstractMethod.coalesce(inProgress, "token GET /servers", call);
+                }
+            });
+            assertTrue("First call did not start", started.await(5, TimeUnit.SECONDS));
+            long previous = Deadline.begin(100L);
+            long start = System.currentTimeMillis();
+
+            try {
+                AbstractMethod.coalesce(inProgress, "token GET /servers", call);
+                fail("Waiting past the deadline should fail");
+            }
+            catch( CloudException expected ) {
+                assertTrue("Wait should end at the deadline", System.currentTimeMillis() - start < 2000L);
+            }
+            finally {
+                Deadline.end(previous);
+            }
+        }
+        finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void coalesceRetriesAfterLeaderDeadline() throws Exception {
+        final ConcurrentHashMap<String,FutureTask<String>> inProgress = new ConcurrentHashMap<String, FutureTask<String>>();
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch joined = new CountDownLatch(1);
+        final Callable<String> call = new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                if( calls.incrementAndGet() > 1 ) {
+                    return "{\"servers\": []}";
+                }
+                started.countDown();
+                joined.await(5, TimeUnit.SECONDS);
+                while( Deadline.sleep(10L) ) { }
+                Deadline.check("GET /servers");
+                return null;
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            Future<String> first = executor.submit(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    long previous = Deadline.begin(200L);
+
+                    try {
+                        return AbstractMethod.coalesce(inProgress, "token GET /servers", call);
+                    }
+                    finally {
+                        Deadline.end(previous);
+                    }
+                }
+            });
+            assertTrue("First call did not start", started.await(5, TimeUnit.SECONDS));
+            Future<String> second = executor.submit(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    return AbstractMethod.coalesce(inProgress, "token GET /servers", call);
+                }
+            });
+            Thread.sleep(50);
+            joined.countDown();
+            try {
+                first.get(5, TimeUnit.SECONDS);
+                fail("Call past its own deadline should fail");
+            }
+            catch( ExecutionException expected ) {
+                assertTrue("Failure should be a cloud exception", expected.getCause() instanceof CloudException);
+            }
+            assertEquals("Caller with time left should make the call again", "{\"servers\": []}", second.get(5, TimeUnit.SECONDS));
+            assertEquals("Call should be made twice", 2, calls.get());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void deadlineTimeoutKeepsBreakerClosed() throws Exception {
+        ServerSocket silent = new ServerSocket(0, 1, InetAddress.getByName("127.0.0.1"));
+        String endpoint = "http://127.0.0.1:" + silent.getLocalPort();
+        CircuitBreaker breaker = new CircuitBreaker(endpoint, 1, 60000L);
+        DefaultHttpClient client = new DefaultHttpClient();
+        long previous = Deadline.begin(200L);
+
+        try {
+            AbstractMethod.send(client, new HttpGet(endpoint + "/servers"), breaker);
+            fail("Endpoint that never answers should time out");
+        }
+        catch( IOException expected ) {
+            // the read timeout was cut down to the time left under the deadline
+        }
+        finally {
+            Deadline.end(previous);
+            client.getConnectionManager().shutdown();
+            silent.close();
+        }
+        assertEquals("Timeout caused by the deadline should not count against the endpoint", 0, breaker.getFailures());
+        assertEquals("Breaker should stay closed", CircuitBreaker.State.CLOSED, breaker.getState());
+    }
 }
@@ -7,6 +7,9 @@ import java.util.HashMap;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Created by mariapavlova on 08/10/2015.
@@ -40,5 +43,69 @@ public class AuthenticationContextTest {
     public void getServiceUrlTest() {
         assertEquals("Returned service url is not as expected", SERVICE_URL, authenticationContext.getServiceUrl("myService"));
     }
+    @Test
+    public void getServiceUrlSuffixMatchTest() {
+        Map<String, Map<String, String>> services = new HashMap<String, Map<String, String>>();
+        Map<String, String> storageMap = new HashMap<String, String>();
+        storageMap.put("geo-1", "testStorageUrl");
+        storageMap.put("other-region", "otherStorageUrl");
+        services.put("object-store", storageMap);
+        AuthenticationContext context = new AuthenticationContext("region-a.geo-1", TOKEN, TENANT_ID, services, null);
+
+        assertEquals("Returned storage url is not as expected", "testStorageUrl", context.getStorageUrl());
+        assertNull("Unknown service should have no url", context.getServiceUrl("unknown"));
+    }
+    @Test
+    public void getVersionTest() {
+        Map<String, Map<String, String>> services = new HashMap<String, Map<String, String>>();
+        Map<String, String> computeMap = new HashMap<String, String>();
+        computeMap.put(REGION_ID, "https://compute.example.com/v1.1/12345/");
+        services.put("compute", computeMap);
+        AuthenticationContext context = new AuthenticationContext(REGION_ID, TOKEN, TENANT_ID, services, null);
+
+        assertEquals("Major version is not as expected", 1, context.getMajorVersion());
+        assertEquals("Minor version is not as expected", 1, context.getMinorVersion());
+        assertEquals("Version without compute url should default to 1", 1, authenticationContext.getMinorVersion());
+    }
+    @Test
+    public void getVersionWithNumericTenantTest() {
+        Map<String, Map<String, String>> services = new HashMap<String, Map<String, String>>();
+        Map<String, String> computeMap = new HashMap<String, String>();
+        computeMap.put(REGION_ID, "https://compute.example.com/v2/12345");
+        services.put("compute", computeMap);
+        AuthenticationContext context = new AuthenticationContext(REGION_ID, TOKEN, TENANT_ID, services, null);
+
+        assertEquals("Tenant ID should not be taken for the major version", 2, context.getMajorVersion());
+        assertEquals("Minor version is not as expected", 2, context.getMinorVersion());
+    }
+    @Test
+    public void getVersionWithoutPrefixTest() {
+        Map<String, Map<String, String>> services = new HashMap<String, Map<String, String>>();
+        Map<String, String> computeMap = new HashMap<String, String>();
+        computeMap.put(REGION_ID, "https://compute.example.com/1.1/");
+        services.put("compute", computeMap);
+        AuthenticationContext context = new AuthenticationContext(REGION_ID, TOKEN, TENANT_ID, services, null);
+
+        assertEquals("Major version is not as expected", 1, context.getMajorVersion());
+        assertEquals("Minor version is not as expected", 1, context.getMinorVersion());
+    }
+    @Test
+    public void getRenewalTimeTest() {
+        assertEquals("Renewal time should be unknown without an expiration", 0L, authenticationContext.getRenewalTime());
+        assertFalse("Context without an expiration should not expire", authenticationContext.isExpired());
+
+        long now = System.currentTimeMillis();
+        AuthenticationContext expiring = new AuthenticationContext(REGION_ID, TOKEN, TENANT_ID, new HashMap<String, Map<String, String>>(), null, now + 100000L);
+        long renewAt = expiring.getRenewalTime();
+
+        assertTrue("Renewal should happen at 90% of the token lifetime", renewAt >= now + 90000L && renewAt < now + 100000L);
+        assertFalse("Token should not have expired yet", expiring.isExpired());
+    }
+    @Test
+    public void isExpiredTest() {
+        AuthenticationContext expired = new AuthenticationContext(REGION_ID, TOKEN, TENANT_ID, new HashMap<String, Map<String, String>>(), null, System.currentTimeMillis() - 1000L);
+
+        assertTrue("Token should have expired", expired.isExpired());
+    }
 
 }
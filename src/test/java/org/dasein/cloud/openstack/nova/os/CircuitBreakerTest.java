@@ -0,0 +1,125 @@
+package org.dasein.cloud.openstack.nova.os;
+
+import org.dasein.cloud.CommunicationException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class CircuitBreakerTest {
+
+    @Test
+    public void opensAfterThreshold() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("http://neutron:9696/", 3, 60000L);
+
+        breaker.failure(CircuitBreaker.NO_PROBE);
+        breaker.failure(CircuitBreaker.NO_PROBE);
+        assertEquals("Closed breaker should not hand out a probe", CircuitBreaker.NO_PROBE, breaker.acquire());
+        assertEquals("Breaker should stay closed below the threshold", CircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.failure(CircuitBreaker.NO_PROBE);
+        assertEquals("Breaker should open at the threshold", CircuitBreaker.State.OPEN, breaker.getState());
+        try {
+            breaker.acquire();
+            fail("Open breaker should fail fast");
+        }
+        catch( CommunicationException expected ) {
+            // expected
+        }
+        assertEquals("Trip count does not match", 1L, breaker.getTrips());
+        assertEquals("Rejected count does not match", 1L, breaker.getRejected());
+    }
+
+    @Test
+    public void successResetsFailures() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("http://neutron:9696/", 3, 60000L);
+
+        breaker.failure(CircuitBreaker.NO_PROBE);
+        breaker.failure(CircuitBreaker.NO_PROBE);
+        breaker.success(CircuitBreaker.NO_PROBE);
+        breaker.failure(CircuitBreaker.NO_PROBE);
+        assertEquals("Failures should be consecutive", 1, breaker.getFailures());
+        assertEquals("Breaker should be closed", CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void halfOpenProbe() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("http://cinder:8776/v1/", 1, 50L);
+
+        breaker.failure(CircuitBreaker.NO_PROBE);
+        Thread.sleep(60L);
+        long probe = breaker.acquire();
+        assertEquals("First request after the open period should probe", CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        try {
+            breaker.acquire();
+            fail("Only one probe should be let through");
+        }
+        catch( CommunicationException expected ) {
+            // expected
+        }
+        breaker.failure(probe);
+        assertEquals("Failed probe should reopen the breaker", CircuitBreaker.State.OPEN, breaker.getState());
+        Thread.sleep(60L);
+        probe = breaker.acquire();
+        breaker.success(probe);
+        assertEquals("Successful probe should close the breaker", CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals("Reopening after a probe should not count as a new trip", 1L, breaker.getTrips());
+    }
+
+    @Test
+    public void onlyProbeChangesHalfOpenBreaker() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("http://nova:8774/v2/", 1, 50L);
+
+        breaker.failure(CircuitBreaker.NO_PROBE);
+        breaker.success(CircuitBreaker.NO_PROBE);
+        assertEquals("Request sent before the breaker opened should not close it", CircuitBreaker.State.OPEN, breaker.getState());
+        Thread.sleep(60L);
+        long probe = breaker.acquire();
+        breaker.success(CircuitBreaker.NO_PROBE);
+        breaker.failure(CircuitBreaker.NO_PROBE);
+        breaker.release(CircuitBreaker.NO_PROBE);
+        assertEquals("Requests other than the probe should not change a half open breaker", CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.success(probe);
+        assertEquals("Successful probe should close the breaker", CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void abortedProbeReleasesBreaker() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("http://nova:8774/v2/", 1, 50L);
+
+        breaker.failure(CircuitBreaker.NO_PROBE);
+        Thread.sleep(60L);
+        long probe = breaker.acquire();
+        breaker.release(probe);
+        assertEquals("Aborted probe should reopen the breaker", CircuitBreaker.State.OPEN, breaker.getState());
+        try {
+            breaker.acquire();
+            fail("Released breaker should wait for another open period");
+        }
+        catch( CommunicationException expected ) {
+            // expected
+        }
+        Thread.sleep(60L);
+        probe = breaker.acquire();
+        assertEquals("Next probe should be let through", CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.success(probe);
+        assertEquals("Successful probe should close the breaker", CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void stuckProbeTimesOut() throws Exception {
+        CircuitBreaker breaker = new CircuitBreaker("http://nova:8774/v2/", 1, 50L);
+
+        breaker.failure(CircuitBreaker.NO_PROBE);
+        Thread.sleep(60L);
+        long stuck = breaker.acquire();
+        Thread.sleep(60L);
+        long probe = breaker.acquire();
+        assertEquals("A probe outstanding for the open period should make way for another", CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.failure(stuck);
+        breaker.release(stuck);
+        assertEquals("Superseded probe should not change the breaker", CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.release(probe);
+        breaker.release(probe);
+        assertEquals("Releasing an open breaker should not change it", CircuitBreaker.State.OPEN, breaker.getState());
+    }
+}
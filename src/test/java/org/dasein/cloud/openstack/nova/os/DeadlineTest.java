@@ -0,0 +1,100 @@
+package org.dasein.cloud.openstack.nova.os;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.dasein.cloud.CloudException;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DeadlineTest {
+
+    @After
+    public void tearDown() {
+        Deadline.end(Deadline.NONE);
+    }
+
+    @Test
+    public void nestedBudgetOnlyTightens() throws Exception {
+        assertEquals("No deadline should be in effect", Deadline.NONE, Deadline.get());
+
+        long outer = Deadline.begin(1000L);
+        long deadline = Deadline.get();
+
+        assertEquals("Previous deadline should be none", Deadline.NONE, outer);
+        long inner = Deadline.begin(60000L);
+
+        assertEquals("A looser inner budget should not extend the deadline", deadline, Deadline.get());
+        Deadline.end(inner);
+        assertEquals("Ending the inner budget should restore the outer deadline", deadline, Deadline.get());
+        Deadline.end(outer);
+        assertEquals("Ending the outer budget should clear the deadline", Deadline.NONE, Deadline.get());
+    }
+
+    @Test
+    public void adoptOnlyTightens() throws Exception {
+        Deadline.begin(60000L);
+        long deadline = Deadline.get();
+
+        Deadline.end(Deadline.NONE);
+        long previous = Deadline.adopt(deadline);
+
+        assertEquals("Previous deadline should be none", Deadline.NONE, previous);
+        assertEquals("Adopted deadline should be in effect", deadline, Deadline.get());
+        Deadline.adopt(deadline + 60000L);
+        assertEquals("A looser adopted deadline should not extend the deadline", deadline, Deadline.get());
+        Deadline.end(previous);
+        assertEquals("Ending should clear the adopted deadline", Deadline.NONE, Deadline.get());
+    }
+
+    @Test
+    public void checkThrowsOnceExpired() throws Exception {
+        Deadline.check("VM.launch");
+        Deadline.begin(1L);
+        Thread.sleep(5L);
+        assertTrue("Deadline should have expired", Deadline.isExpired());
+        assertFalse("Sleep should not wait past the deadline", Deadline.sleep(1000L));
+        try {
+            Deadline.check("VM.launch");
+            fail("Check should fail once the deadline has passed");
+        }
+        catch( CloudException expected ) {
+            // expected
+        }
+    }
+
+    @Test
+    public void wrapPropagatesDeadline() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            Deadline.begin(60000L);
+            final long deadline = Deadline.get();
+
+            long seen = executor.submit(Deadline.wrap(new Callable<Long>() {
+                @Override
+                public Long call() {
+                    return Deadline.get();
+                }
+            })).get();
+
+            assertEquals("Wrapped task should run under the caller's deadline", deadline, seen);
+            seen = executor.submit(new Callable<Long>() {
+                @Override
+                public Long call() {
+                    return Deadline.get();
+                }
+            }).get();
+            assertEquals("Deadline should not leak into later tasks", Deadline.NONE, seen);
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+}
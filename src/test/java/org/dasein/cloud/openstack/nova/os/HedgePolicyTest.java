@@ -0,0 +1,44 @@
+package org.dasein.cloud.openstack.nova.os;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HedgePolicyTest {
+
+    @Test
+    public void noHedgingUntilEnoughSamples() throws Exception {
+        HedgePolicy policy = new HedgePolicy("http://nova:8774/v2/tenant", 95.0, 0.05);
+
+        for( int i = 0; i < HedgePolicy.MIN_SAMPLES - 1; i++ ) {
+            policy.record(100L);
+        }
+        assertEquals("Delay should be unknown without enough samples", -1L, policy.begin());
+    }
+
+    @Test
+    public void delayIsPercentileOfRecentLatency() throws Exception {
+        HedgePolicy policy = new HedgePolicy("http://nova:8774/v2/tenant", 95.0, 0.05);
+
+        for( int i = 1; i <= 100; i++ ) {
+            policy.record(i);
+        }
+        assertEquals("Delay should be the 95th percentile", 95L, policy.begin());
+    }
+
+    @Test
+    public void hedgesStayWithinBudget() throws Exception {
+        HedgePolicy policy = new HedgePolicy("http://nova:8774/v2/tenant", 95.0, 0.05);
+
+        for( int i = 0; i < 19; i++ ) {
+            policy.begin();
+        }
+        assertFalse("No hedge should be allowed before 20 requests", policy.tryHedge());
+        policy.begin();
+        assertTrue("One hedge should be allowed after 20 requests", policy.tryHedge());
+        assertFalse("A second hedge should exceed the budget", policy.tryHedge());
+        assertEquals("Hedge count does not match", 1L, policy.getHedged());
+    }
+}
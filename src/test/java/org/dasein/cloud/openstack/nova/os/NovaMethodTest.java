@@ -1,5 +1,6 @@
 package org.dasein.cloud.openstack.nova.os;
 
+import org.dasein.cloud.CloudErrorType;
 import org.dasein.cloud.CloudException;
 import org.dasein.cloud.InternalException;
 import org.dasein.cloud.compute.VirtualMachine;
@@ -14,11 +15,17 @@ import org.mockito.Mockito;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.*;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -414,4 +421,59 @@ public class NovaMethodTest {
         }
     }
 
+
+    @Test
+    public void getServersAsyncTest() throws Exception {
+        NovaMethod method = mock(NovaMethod.class);
+        NovaOpenStack provider = mock(NovaOpenStack.class);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        JSONObject servers = new JSONObject("{\"servers\":[]}");
+
+        try {
+            method.provider = provider;
+            when(provider.getExecutor()).thenReturn(executor);
+            when(method.getServers("/servers", null, true)).thenReturn(servers);
+            when(method.getServers("/servers", "missing", false)).thenThrow(new CloudException("failed"));
+            Mockito.doCallRealMethod().when(method).submit(any(Callable.class));
+            Mockito.doCallRealMethod().when(method).getServersAsync(anyString(), anyString(), anyBoolean());
+
+            assertEquals("Async result is not as expected", servers, method.getServersAsync("/servers", null, true).get());
+            try {
+                method.getServersAsync("/servers", "missing", false).get();
+                fail("Exception should have been thrown");
+            }
+            catch( ExecutionException e ) {
+                assertTrue("Cause should be the original cloud exception", e.getCause() instanceof CloudException);
+            }
+        }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void getServersRetriesOnceOn401Test() throws Exception {
+        AuthenticationContext context = mock(AuthenticationContext.class);
+        NovaMethod method = mock(NovaMethod.class);
+        NovaOpenStack provider = mock(NovaOpenStack.class);
+
+        method.provider = provider;
+        when(method.getAuthenticationContext()).thenReturn(context);
+        when(context.getComputeUrl()).thenReturn("testComputeUrl");
+        when(context.getAuthToken()).thenReturn("testAuthToken");
+        when(method.getString(anyString(), anyString(), anyString())).thenThrow(new NovaException(CloudErrorType.AUTHENTICATION, 401, "unauthorized", "expired"));
+        Mockito.doCallRealMethod().when(method).getServers(anyString(), anyString(), anyBoolean());
+        when(method.beginAuthenticationRetry(any(AuthenticationContext.class))).thenCallRealMethod();
+        Mockito.doCallRealMethod().when(method).endAuthenticationRetry();
+
+        try {
+            method.getServers("/servers", null, true);
+            fail("Exception should have been thrown");
+        }
+        catch( NovaException e ) {
+            assertEquals("Exception HTTP status code does not match", 401, e.getHttpCode());
+        }
+        verify(provider, times(1)).refreshAuthenticationContext(context);
+        verify(method, times(2)).getString(anyString(), anyString(), anyString());
+    }
 }
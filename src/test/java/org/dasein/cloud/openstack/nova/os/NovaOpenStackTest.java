@@ -0,0 +1,36 @@
+package org.dasein.cloud.openstack.nova.os;
+
+import org.dasein.cloud.InternalException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class NovaOpenStackTest {
+
+    @Test
+    public void parseTimestampTest() throws Exception {
+        assertEquals("Timestamp with Z is not as expected", 1454915463000L, NovaOpenStack.parseTimestamp("2016-02-08T07:11:03Z"));
+        assertEquals("Timestamp with millis is not as expected", 1340030822123L, NovaOpenStack.parseTimestamp("2012-06-18T14:47:02.123Z"));
+        assertEquals("Timestamp with micros is not as expected", 1399464373681L, NovaOpenStack.parseTimestamp("2014-05-07T12:06:13.681238"));
+        assertEquals("Timestamp with offset is not as expected", 1340027222000L, NovaOpenStack.parseTimestamp("2012-06-18T14:47:02+01:00"));
+        assertEquals("Timestamp with space separator is not as expected", 1339875689000L, NovaOpenStack.parseTimestamp("2012-06-16 19:41:29"));
+        assertEquals("Lenient timestamp is not as expected", 1454915463000L, NovaOpenStack.parseTimestamp("2016-2-8T07:11:03"));
+        assertEquals("Missing timestamp should be 0", 0L, NovaOpenStack.parseTimestamp(null));
+        assertEquals("Empty timestamp should be 0", 0L, NovaOpenStack.parseTimestamp(""));
+    }
+
+    @Test(expected = InternalException.class)
+    public void parseTimestampInvalidTest() throws Exception {
+        NovaOpenStack.parseTimestamp("yesterday");
+    }
+
+    @Test
+    public void toCollectionTest() throws Exception {
+        assertEquals("Collection of a detail listing is not as expected", "flavors", NovaOpenStack.toCollection("/flavors/detail"));
+        assertEquals("Collection of a query is not as expected", "images", NovaOpenStack.toCollection("/images?limit=100"));
+        assertEquals("Collection of a server action is not as expected", "servers", NovaOpenStack.toCollection("/servers/1234/action"));
+        assertEquals("Collection without a leading slash is not as expected", "extensions", NovaOpenStack.toCollection("extensions"));
+        assertNull("Empty resource should have no collection", NovaOpenStack.toCollection("/"));
+    }
+}
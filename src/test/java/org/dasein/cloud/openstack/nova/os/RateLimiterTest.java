@@ -0,0 +1,79 @@
+package org.dasein.cloud.openstack.nova.os;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.message.BasicStatusLine;
+import org.dasein.cloud.CloudErrorType;
+import org.dasein.cloud.CloudException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RateLimiterTest {
+
+    @Test
+    public void burstThenSteadyRate() throws Exception {
+        RateLimiter limiter = new RateLimiter("compute|tenant", 2.0, 2);
+        long now = System.currentTimeMillis();
+
+        assertEquals("First request of the burst should not wait", 0L, limiter.tryAcquire(now));
+        assertEquals("Second request of the burst should not wait", 0L, limiter.tryAcquire(now));
+        assertEquals("Request beyond the burst should wait for the next permit", 500L, limiter.tryAcquire(now));
+        assertEquals("Permit should be available after the wait", 0L, limiter.tryAcquire(now + 500L));
+    }
+
+    @Test
+    public void unlimitedUnlessPaused() throws Exception {
+        RateLimiter limiter = new RateLimiter("compute|tenant", 0.0, 1);
+        long now = System.currentTimeMillis();
+
+        for( int i = 0; i < 100; i++ ) {
+            assertEquals("Unlimited bucket should never wait", 0L, limiter.tryAcquire(now));
+        }
+        limiter.pause(60000L);
+        assertTrue("Paused bucket should wait", limiter.tryAcquire(System.currentTimeMillis()) > 59000L);
+        assertEquals("Pause should be counted", 1L, limiter.getPauses());
+    }
+
+    @Test
+    public void acquireFailsPastDeadline() throws Exception {
+        RateLimiter limiter = new RateLimiter("compute|tenant", 0.0, 1);
+
+        limiter.pause(60000L);
+        try {
+            limiter.acquire(System.currentTimeMillis() + 1000L);
+            fail("Acquire should fail when the pause outlasts the deadline");
+        }
+        catch( CloudException e ) {
+            assertEquals("Exception error type does not match", CloudErrorType.THROTTLING, e.getErrorType());
+        }
+    }
+
+    @Test
+    public void parseRetryAfterHeader() throws Exception {
+        HttpResponse response = new BasicHttpResponse(new BasicStatusLine(HttpVersion.HTTP_1_1, 429, "Too Many Requests"));
+
+        response.addHeader("Retry-After", "7");
+        assertEquals("Retry-After header does not match", 7000L, RateLimiter.parseRetryAfter(response));
+    }
+
+    @Test
+    public void parseRetryAfterOverLimitBody() throws Exception {
+        HttpResponse response = new BasicHttpResponse(new BasicStatusLine(HttpVersion.HTTP_1_1, 413, "Request Entity Too Large"));
+
+        response.setEntity(new StringEntity("{\"overLimit\": {\"message\": \"This request was rate-limited.\", \"code\": 413, \"retryAfter\": \"30\"}}"));
+        assertEquals("retryAfter does not match", 30000L, RateLimiter.parseRetryAfter(response));
+    }
+
+    @Test
+    public void parseRetryAfterMissing() throws Exception {
+        HttpResponse response = new BasicHttpResponse(new BasicStatusLine(HttpVersion.HTTP_1_1, 413, "Request Entity Too Large"));
+
+        response.setEntity(new StringEntity("{\"overLimit\": {\"message\": \"VolumeLimitExceeded\", \"code\": 413}}"));
+        assertEquals("Missing retryAfter should be -1", -1L, RateLimiter.parseRetryAfter(response));
+    }
+}
@@ -0,0 +1,118 @@
+package org.dasein.cloud.openstack.nova.os;
+
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.util.EntityUtils;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ResponseCacheTest {
+    static private final String NOVA   = "http://nova:8774/v2/tenant";
+    static private final String GLANCE = "http://glance:9292/v2";
+
+    private ResponseCache.Entry entry(int size, long freshUntil) {
+        return new ResponseCache.Entry(new byte[size], "application/json", "\"etag\"", null, freshUntil);
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() throws Exception {
+        ResponseCache cache = new ResponseCache(800L);
+
+        cache.put(NOVA, "a", entry(100, 0L));
+        cache.put(NOVA, "b", entry(100, 0L));
+        cache.get(NOVA, "a");
+        for( int i = 0; i < 6; i++ ) {
+            cache.put(NOVA, "c" + i, entry(100, 0L));
+        }
+        cache.put(NOVA, "d", entry(100, 0L));
+        assertNotNull("Recently used entry should be retained", cache.get(NOVA, "a"));
+        assertNull("Least recently used entry should be evicted", cache.get(NOVA, "b"));
+        assertEquals("Cache size should stay within capacity", 800L, cache.getSize());
+    }
+
+    @Test
+    public void evictsFromWrittenEndpointFirst() throws Exception {
+        ResponseCache cache = new ResponseCache(800L);
+
+        cache.put(GLANCE, "g", entry(100, 0L));
+        for( int i = 0; i < 8; i++ ) {
+            cache.put(NOVA, "n" + i, entry(100, 0L));
+        }
+        assertNotNull("Entry of another endpoint should be retained", cache.get(GLANCE, "g"));
+        assertNull("Oldest entry of the written endpoint should be evicted", cache.get(NOVA, "n0"));
+        assertEquals("Cache size should stay within capacity", 800L, cache.getSize());
+    }
+
+    @Test
+    public void evictsFromOtherEndpointsWhenNeeded() throws Exception {
+        ResponseCache cache = new ResponseCache(800L);
+
+        for( int i = 0; i < 8; i++ ) {
+            cache.put(GLANCE, "g" + i, entry(100, 0L));
+        }
+        cache.put(NOVA, "n", entry(100, 0L));
+        assertNotNull("New entry should be cached", cache.get(NOVA, "n"));
+        assertNull("Oldest entry of the other endpoint should be evicted", cache.get(GLANCE, "g0"));
+        assertNotNull("Newer entry of the other endpoint should be retained", cache.get(GLANCE, "g1"));
+        assertEquals("Cache size should stay within capacity", 800L, cache.getSize());
+    }
+
+    @Test
+    public void doesNotCacheLargeBodies() throws Exception {
+        ResponseCache cache = new ResponseCache(800L);
+
+        cache.put(NOVA, "a", entry(101, 0L));
+        assertNull("Body above an eighth of capacity should not be cached", cache.get(NOVA, "a"));
+        assertEquals("Cache should be empty", 0L, cache.getSize());
+    }
+
+    @Test
+    public void sharesInstancesByCapacity() throws Exception {
+        assertSame("Default instance should have the default capacity", ResponseCache.getInstance(), ResponseCache.getInstance(ResponseCache.DEFAULT_CAPACITY));
+        assertSame("Same capacity should share an instance", ResponseCache.getInstance(1024L), ResponseCache.getInstance(1024L));
+        assertNotSame("Different capacities should not share an instance", ResponseCache.getInstance(1024L), ResponseCache.getInstance(2048L));
+        assertEquals("Capacity does not match", 2048L, ResponseCache.getInstance(2048L).getCapacity());
+    }
+
+    @Test
+    public void refreshExtendsFreshness() throws Exception {
+        ResponseCache.Entry entry = entry(10, 0L);
+
+        assertFalse("Entry should be stale", entry.isFresh());
+        entry.refresh(System.currentTimeMillis() + 60000L);
+        assertTrue("Entry should be fresh after refresh", entry.isFresh());
+    }
+
+    @Test
+    public void entityPreservesContentType() throws Exception {
+        ResponseCache.Entry entry = new ResponseCache.Entry("{}".getBytes("utf-8"), "application/json", null, "Mon, 08 Feb 2016 07:11:03 GMT", 0L);
+        ByteArrayEntity entity = entry.toEntity();
+
+        assertEquals("Content type does not match", "application/json", entity.getContentType().getValue());
+        assertEquals("Body does not match", "{}", EntityUtils.toString(entity));
+    }
+
+    @Test
+    public void invalidateDropsEntriesOfEndpoint() throws Exception {
+        ResponseCache cache = new ResponseCache(8000L);
+
+        cache.put(NOVA, "t1 http://nova:8774/v2/tenant/servers/1", entry(100, 0L));
+        cache.put(NOVA, "t2 http://nova:8774/v2/tenant/flavors/detail", entry(100, 0L));
+        cache.put(NOVA + "2", "t1 http://nova:8774/v2/tenant2/servers/1", entry(100, 0L));
+        cache.put(GLANCE, "t1 http://glance:9292/v2/images", entry(100, 0L));
+        cache.invalidate(NOVA + "/");
+        assertNull("Entry of the endpoint should be dropped", cache.get(NOVA, "t1 http://nova:8774/v2/tenant/servers/1"));
+        assertNull("Entry for another token should be dropped", cache.get(NOVA, "t2 http://nova:8774/v2/tenant/flavors/detail"));
+        assertNotNull("Entry for a sibling endpoint should be retained", cache.get(NOVA + "2", "t1 http://nova:8774/v2/tenant2/servers/1"));
+        assertNotNull("Entry for another service should be retained", cache.get(GLANCE, "t1 http://glance:9292/v2/images"));
+        assertEquals("Cache size should only count retained entries", 200L, cache.getSize());
+        cache.put(NOVA, "t1 http://nova:8774/v2/tenant/servers/1", entry(100, 0L));
+        assertEquals("Cache size should count entries added after invalidation", 300L, cache.getSize());
+    }
+}
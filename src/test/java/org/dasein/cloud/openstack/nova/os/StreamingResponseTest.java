@@ -0,0 +1,62 @@
+package org.dasein.cloud.openstack.nova.os;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.message.BasicHeader;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.*;
+
+public class StreamingResponseTest {
+    private HttpGet      get;
+    private HttpResponse response;
+    private HttpEntity   entity;
+
+    @Before
+    public void setUp() throws Exception {
+        get = mock(HttpGet.class);
+        response = mock(HttpResponse.class);
+        entity = mock(HttpEntity.class);
+        when(entity.getContent()).thenReturn(new ByteArrayInputStream("content".getBytes()));
+        when(entity.getContentLength()).thenReturn(7L);
+        when(response.getFirstHeader("ETag")).thenReturn(new BasicHeader("ETag", "9a0364b9e99bb480dd25e1f0284c8555"));
+    }
+
+    @Test
+    public void exposesResponseMetadata() throws Exception {
+        StreamingResponse stream = new StreamingResponse(get, response, entity);
+
+        assertEquals("Content length does not match", 7L, stream.getContentLength());
+        assertEquals("ETag does not match", "9a0364b9e99bb480dd25e1f0284c8555", stream.getETag());
+    }
+
+    @Test
+    public void closeAfterEofReleasesConnection() throws Exception {
+        StreamingResponse stream = new StreamingResponse(get, response, entity);
+
+        while( stream.read(new byte[4], 0, 4) != -1 ) { }
+        assertTrue("Stream should be fully read", stream.isFullyRead());
+        stream.close();
+        verify(get).releaseConnection();
+        verify(get, never()).abort();
+    }
+
+    @Test
+    public void closeBeforeEofAbortsConnection() throws Exception {
+        StreamingResponse stream = new StreamingResponse(get, response, entity);
+
+        stream.read();
+        assertFalse("Stream should not be fully read", stream.isFullyRead());
+        stream.close();
+        stream.close();
+        verify(get, times(1)).abort();
+        verify(get, never()).releaseConnection();
+    }
+}
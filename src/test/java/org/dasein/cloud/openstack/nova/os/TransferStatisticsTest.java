@@ -0,0 +1,45 @@
+package org.dasein.cloud.openstack.nova.os;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.util.EntityUtils;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TransferStatisticsTest {
+
+    @Test
+    public void decodeGzipResponseTest() throws Exception {
+        StringBuilder json = new StringBuilder("{\"servers\": [");
+        for( int i = 0; i < 100; i++ ) {
+            json.append(i == 0 ? "" : ",").append("{\"id\": \"server-").append(i).append("\"}");
+        }
+        json.append("]}");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        GZIPOutputStream gzip = new GZIPOutputStream(bytes);
+        gzip.write(json.toString().getBytes("UTF-8"));
+        gzip.close();
+
+        ByteArrayEntity entity = new ByteArrayEntity(bytes.toByteArray());
+        entity.setContentEncoding("gzip");
+        HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        response.setEntity(entity);
+
+        String endpoint = "https://compute.example.com/v2/decodeGzipResponseTest";
+        TransferStatistics.decode(response, endpoint);
+
+        assertEquals("Decoded content is not as expected", json.toString(), EntityUtils.toString(response.getEntity()));
+        TransferStatistics stats = TransferStatistics.getInstance(endpoint);
+        assertEquals("Wire bytes are not as expected", bytes.size(), stats.getWireBytes());
+        assertEquals("Content bytes are not as expected", json.length(), stats.getContentBytes());
+        assertEquals("Compressed responses are not as expected", 1, stats.getCompressedResponses());
+        assertTrue("Compressed size should be smaller", stats.getWireBytes() < stats.getContentBytes());
+    }
+}
@@ -0,0 +1,40 @@
+package org.dasein.cloud.openstack.nova.os.compute;
+
+import org.dasein.cloud.openstack.nova.os.OpenStackTest;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class NovaLimitsTest extends OpenStackTest {
+
+    @Test
+    public void parseRateLimits() throws Exception {
+        NovaLimits limits = NovaLimits.parse(readJson("nova/fixtures/compute/get_limits.json"));
+        List<NovaLimits.RateLimit> rates = limits.getRateLimits();
+
+        assertEquals("Number of rate limits does not match", 3, rates.size());
+        assertEquals("Verb does not match", "POST", rates.get(0).verb);
+        assertEquals("Value does not match", 120, rates.get(0).value);
+        assertEquals("Unit length does not match", 60L, rates.get(0).getUnitSeconds());
+        assertTrue("Limit on * should be global", rates.get(0).isGlobal());
+        assertEquals("Remaining does not match", 0, rates.get(1).remaining);
+        assertEquals("Next available does not match", 1323988965000L, rates.get(1).nextAvailable);
+        assertFalse("Limit on */servers should not be global", rates.get(2).isGlobal());
+    }
+
+    @Test
+    public void parseAbsoluteLimits() throws Exception {
+        NovaLimits limits = NovaLimits.parse(readJson("nova/fixtures/compute/get_limits.json"));
+
+        assertEquals("Remaining instances does not match", 8, limits.getRemainingInstances());
+        assertEquals("Unlimited cores should be -1", -1, limits.getRemainingCores());
+        assertEquals("Remaining RAM does not match", 47104, limits.getRemainingRAM());
+        assertEquals("Absolute limit does not match", Integer.valueOf(128), limits.getAbsoluteLimit("maxServerMeta"));
+        assertNull("Unknown limit should be null", limits.getAbsoluteLimit("maxTotalVolumes"));
+    }
+}
@@ -1,25 +1,42 @@
 package org.dasein.cloud.openstack.nova.os.compute;
 
+import org.dasein.cloud.CloudErrorType;
 import org.dasein.cloud.CloudException;
 import org.dasein.cloud.InternalException;
+import org.dasein.cloud.ResourceNotFoundException;
 import org.dasein.cloud.ResourceStatus;
 import org.dasein.cloud.compute.*;
 import org.dasein.cloud.network.*;
+import org.dasein.cloud.openstack.nova.os.AbstractMethod;
+import org.dasein.cloud.openstack.nova.os.Deadline;
+import org.dasein.cloud.openstack.nova.os.NovaException;
 import org.dasein.cloud.openstack.nova.os.NovaMethod;
+import org.dasein.cloud.openstack.nova.os.NovaOpenStack;
 import org.dasein.cloud.openstack.nova.os.OpenStackProvider;
 import org.dasein.cloud.openstack.nova.os.OpenStackTest;
 import org.dasein.cloud.openstack.nova.os.network.NovaFloatingIP;
 import org.dasein.cloud.openstack.nova.os.network.NovaNetworkServices;
 import org.dasein.cloud.openstack.nova.os.network.NovaSecurityGroup;
 import org.dasein.cloud.openstack.nova.os.network.Quantum;
+import org.dasein.util.Jiterator;
+import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.skyscreamer.jsonassert.JSONAssert;
 
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.Assert.*;
 import static org.junit.Assert.assertEquals;
@@ -35,6 +52,24 @@ import static org.mockito.internal.verification.VerificationModeFactory.times;
 public class NovaServerTest extends OpenStackTest {
 
 
+    /**
+     * Feeds the elements of a fixture to the handler passed to a streaming list call, the way the wire parser would.
+     */
+    private Answer<JSONObject> streamElements(final JSONObject json, final String element) {
+        return new Answer<JSONObject>() {
+            @Override
+            public JSONObject answer(InvocationOnMock invocation) throws Throwable {
+                AbstractMethod.ElementHandler handler = ( AbstractMethod.ElementHandler ) invocation.getArguments()[4];
+                JSONArray list = json.getJSONArray(element);
+
+                for( int i = 0; i < list.length(); i++ ) {
+                    handler.handle(list.getJSONObject(i));
+                }
+                return new JSONObject();
+            }
+        };
+    }
+
     @Test
     public void getConsoleOutputTest() {
         NovaMethod method = mock(NovaMethod.class);
@@ -115,12 +150,15 @@ public class NovaServerTest extends OpenStackTest {
 
         JSONObject json = readJson("nova/fixtures/compute/get_server.json");
         final String testVmId = "testVmId";
+        ExecutorService executor = Executors.newSingleThreadExecutor();
         try {
             when(server.getNetworkServices()).thenReturn(networkServicesMock);
             when(networkServicesMock.getIpAddressSupport()).thenReturn(ipAddressSupportMock);
-            when(ipAddressSupportMock.listIpPool(any(IPVersion.class), anyBoolean())).thenReturn(Collections.EMPTY_LIST);
+            when(ipAddressSupportMock.listIpPools(anyBoolean())).thenReturn(Collections.<IPVersion, List<IpAddress>>emptyMap());
             when(networkServicesMock.getVlanSupport()).thenReturn(vlanSupportMock);
             when(vlanSupportMock.listVlans()).thenReturn(Collections.EMPTY_LIST);
+            when(vlanSupportMock.listAllSubnets()).thenReturn(Collections.EMPTY_LIST);
+            when(server.getExecutor()).thenReturn(executor);
 
             when(server.getMethod()).thenReturn(method);
             when(server.getTenantId()).thenReturn("openstack");
@@ -132,6 +170,7 @@ public class NovaServerTest extends OpenStackTest {
             when(server.getRegionId()).thenReturn("testRegion");
             when(server.listFirewalls(anyString(), any(JSONObject.class))).thenReturn(Collections.EMPTY_LIST);
             when(server.toVirtualMachine(any(JSONObject.class), anyList(), anyList(), anyList())).thenCallRealMethod();
+            when(server.toVirtualMachine(any(JSONObject.class), any(ServerIndex.class))).thenCallRealMethod();
             when(method.getServers(anyString(), anyString(), anyBoolean())).thenReturn(json);
             when(server.getVirtualMachine(anyString())).thenCallRealMethod();
             VirtualMachine vm = server.getVirtualMachine(testVmId);
@@ -143,11 +182,42 @@ public class NovaServerTest extends OpenStackTest {
             assertEquals("Provider Machine Image ID is not as expected ", "70a599e0-31e7-49b7-b260-868f441e862b", vm.getProviderMachineImageId());
             assertEquals("Provider Owner ID is not as expected ", "openstack", vm.getProviderOwnerId());
             assertEquals("Provider Region ID is not as expected ", "testRegion", vm.getProviderRegionId());
+            verify(vlanSupportMock, never()).listAllSubnets();
 
         }
         catch( JSONException | InternalException | CloudException e) {
             fail("Test failed " + e.getMessage());
         }
+        finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void getVirtualMachineMissingTest() {
+        NovaMethod method = mock(NovaMethod.class);
+        NovaServer server = mock(NovaServer.class);
+        NovaNetworkServices networkServicesMock = mock(NovaNetworkServices.class);
+        ExecutorService executor = mock(ExecutorService.class);
+        Future lookup = mock(Future.class);
+
+        try {
+            when(server.getNetworkServices()).thenReturn(networkServicesMock);
+            when(networkServicesMock.getIpAddressSupport()).thenReturn(mock(NovaFloatingIP.class));
+            when(networkServicesMock.getVlanSupport()).thenReturn(mock(Quantum.class));
+            when(server.getExecutor()).thenReturn(executor);
+            when(executor.submit(any(Callable.class))).thenReturn(lookup);
+            when(server.getMethod()).thenReturn(method);
+            when(method.getServers(anyString(), anyString(), anyBoolean())).thenReturn(null);
+            when(server.getVirtualMachine(anyString())).thenCallRealMethod();
+
+            assertNull("Missing VM should not be found", server.getVirtualMachine("testVmId"));
+            verify(executor, times(2)).submit(any(Callable.class));
+            verify(lookup, times(2)).cancel(false);
+        }
+        catch( InternalException | CloudException e) {
+            fail("Test failed " + e.getMessage());
+        }
     }
 
     @Test
@@ -332,7 +402,7 @@ public class NovaServerTest extends OpenStackTest {
     @Test
     public void listVirtualMachinesTest() {
         NovaMethod method = mock(NovaMethod.class);
-        NovaServer server = mock(NovaServer.class);
+        final NovaServer server = mock(NovaServer.class);
         NovaNetworkServices networkServicesMock = mock(NovaNetworkServices.class);
         NovaFloatingIP ipAddressSupportMock = mock(NovaFloatingIP.class);
         Quantum vlanSupportMock = mock(Quantum.class);
@@ -344,19 +414,124 @@ public class NovaServerTest extends OpenStackTest {
             when(server.getCloudProvider()).thenReturn(OpenStackProvider.OTHER);
             when(server.listFirewalls(anyString(), any(JSONObject.class))).thenReturn(Collections.EMPTY_LIST);
             when(networkServicesMock.getVlanSupport()).thenReturn(vlanSupportMock);
-            when(method.getServers(anyString(), anyString(), anyBoolean())).thenReturn(json);
+            final Answer<JSONObject> servers = streamElements(json, "servers");
+
+            when(method.getServers(anyString(), anyBoolean(), anyString(), anyString(), any(AbstractMethod.ElementHandler.class))).thenAnswer(new Answer<JSONObject>() {
+                @Override
+                public JSONObject answer(InvocationOnMock invocation) throws Throwable {
+                    JSONObject rest = servers.answer(invocation);
+
+                    // converting a server may issue requests, so it must wait until the page response is released
+                    verify(server, never()).toVirtualMachine(any(JSONObject.class), any(ServerIndex.class));
+                    return rest;
+                }
+            });
             when(server.getNovaFloatingIp()).thenCallRealMethod();
             when(server.getQuantum()).thenCallRealMethod();
-            when(server.toVirtualMachine(any(JSONObject.class), anyList(), anyList(), anyList())).thenCallRealMethod();
-            when(server.listVirtualMachines()).thenCallRealMethod();
-            Iterable<VirtualMachine> vm = server.listVirtualMachines();
-            assertNotNull("List of virtual machines cannot be null", vm);
+            when(server.toVirtualMachine(any(JSONObject.class), any(ServerIndex.class))).thenCallRealMethod();
+            Jiterator<VirtualMachine> iterator = mock(Jiterator.class);
+            Mockito.doCallRealMethod().when(server).loadVirtualMachines(any(Jiterator.class));
+            server.loadVirtualMachines(iterator);
+            verify(iterator, times(json.getJSONArray("servers").length())).push(any(VirtualMachine.class));
+            verify(server, times(json.getJSONArray("servers").length())).toVirtualMachine(any(JSONObject.class), any(ServerIndex.class));
+        }
+        catch( JSONException | InternalException | CloudException e) {
+            e.printStackTrace();
+            fail("Test failed " + e.getMessage());
+        }
+    }
+    @Test
+    public void listVirtualMachinesOverlapsLookupsTest() {
+        NovaMethod method = mock(NovaMethod.class);
+        NovaServer server = mock(NovaServer.class);
+        NovaNetworkServices networkServicesMock = mock(NovaNetworkServices.class);
+        NovaFloatingIP ipAddressSupportMock = mock(NovaFloatingIP.class);
+        JSONObject json = readJson("nova/fixtures/compute/list_servers.json");
+        final CountDownLatch listing = new CountDownLatch(1);
+        final AtomicBoolean overlapped = new AtomicBoolean();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            when(server.getMethod()).thenReturn(method);
+            when(server.getNetworkServices()).thenReturn(networkServicesMock);
+            when(server.getExecutor()).thenReturn(executor);
+            when(server.getCloudProvider()).thenReturn(OpenStackProvider.OTHER);
+            when(server.listFirewalls(anyString(), any(JSONObject.class))).thenReturn(Collections.EMPTY_LIST);
+            when(networkServicesMock.getIpAddressSupport()).thenReturn(ipAddressSupportMock);
+            when(ipAddressSupportMock.listIpPools(anyBoolean())).thenAnswer(new Answer<Map<IPVersion,List<IpAddress>>>() {
+                @Override
+                public Map<IPVersion,List<IpAddress>> answer(InvocationOnMock invocation) throws Throwable {
+                    overlapped.set(listing.await(5, TimeUnit.SECONDS));
+                    return Collections.emptyMap();
+                }
+            });
+            final Answer<JSONObject> servers = streamElements(json, "servers");
+
+            when(method.getServers(anyString(), anyBoolean(), anyString(), anyString(), any(AbstractMethod.ElementHandler.class))).thenAnswer(new Answer<JSONObject>() {
+                @Override
+                public JSONObject answer(InvocationOnMock invocation) throws Throwable {
+                    listing.countDown();
+                    return servers.answer(invocation);
+                }
+            });
+            when(server.getNovaFloatingIp()).thenCallRealMethod();
+            when(server.getQuantum()).thenCallRealMethod();
+            when(server.toVirtualMachine(any(JSONObject.class), any(ServerIndex.class))).thenCallRealMethod();
+            Jiterator<VirtualMachine> iterator = mock(Jiterator.class);
+            Mockito.doCallRealMethod().when(server).loadVirtualMachines(any(Jiterator.class));
+            server.loadVirtualMachines(iterator);
+            assertTrue("Listing should start while the floating IPs are still being fetched", overlapped.get());
+            verify(iterator, times(json.getJSONArray("servers").length())).push(any(VirtualMachine.class));
         }
         catch( JSONException | InternalException | CloudException e) {
             e.printStackTrace();
             fail("Test failed " + e.getMessage());
         }
+        finally {
+            executor.shutdown();
+        }
     }
+    @Test
+    public void listVirtualMachinesIterableTest() {
+        NovaOpenStack provider = mock(NovaOpenStack.class);
+        final VirtualMachine first = mock(VirtualMachine.class);
+        final VirtualMachine second = mock(VirtualMachine.class);
+        final long[] populatorDeadline = new long[1];
+
+        when(provider.getProviderName()).thenReturn("OpenStack");
+        when(provider.getCloudName()).thenReturn("OpenStack");
+        NovaServer server = spy(new NovaServer(provider));
+
+        long previous = Deadline.begin(60000L);
+        try {
+            doAnswer(new Answer<Void>() {
+                @Override
+                public Void answer(InvocationOnMock invocation) throws Throwable {
+                    Jiterator<VirtualMachine> iterator = ( Jiterator<VirtualMachine> ) invocation.getArguments()[0];
+
+                    populatorDeadline[0] = Deadline.get();
+                    iterator.push(first);
+                    iterator.push(second);
+                    return null;
+                }
+            }).when(server).loadVirtualMachines(any(Jiterator.class));
+
+            List<VirtualMachine> vms = new ArrayList<VirtualMachine>();
+
+            for( VirtualMachine vm : server.listVirtualMachines() ) {
+                vms.add(vm);
+            }
+            assertEquals("Listed VMs are not as expected", Arrays.asList(first, second), vms);
+            assertEquals("Listing should run under the caller's deadline", Deadline.get(), populatorDeadline[0]);
+        }
+        catch( InternalException | CloudException e) {
+            e.printStackTrace();
+            fail("Test failed " + e.getMessage());
+        }
+        finally {
+            Deadline.end(previous);
+        }
+    }
+
     @Test
     public void listVirtualMachineStatusTest() {
         NovaMethod method = mock(NovaMethod.class);
@@ -365,11 +540,12 @@ public class NovaServerTest extends OpenStackTest {
         JSONObject json = readJson("nova/fixtures/compute/list_servers.json");
         when(server.getMethod()).thenReturn(method);
         try {
-            when(method.getServers(anyString(), anyString(), anyBoolean())).thenReturn(json);
+            when(method.getServers(anyString(), anyBoolean(), anyString(), anyString(), any(AbstractMethod.ElementHandler.class))).thenAnswer(streamElements(json, "servers"));
             when(server.toStatus(any(JSONObject.class))).thenCallRealMethod();
             when(server.listVirtualMachineStatus()).thenCallRealMethod();
             Iterable<ResourceStatus> vm = server.listVirtualMachineStatus();
             assertNotNull("List of virtual machine's statuses  cannot be null", vm);
+            verify(server, times(json.getJSONArray("servers").length())).toStatus(any(JSONObject.class));
         }
         catch( JSONException | InternalException | CloudException e) {
             e.printStackTrace();
@@ -377,17 +553,54 @@ public class NovaServerTest extends OpenStackTest {
         }
     }
 
+    @Test
+    public void listVirtualMachineStatusFollowsNextLink() {
+        NovaMethod method = mock(NovaMethod.class);
+        NovaServer server = mock(NovaServer.class);
+        JSONObject json = readJson("nova/fixtures/compute/list_servers.json");
+        when(server.getMethod()).thenReturn(method);
+        try {
+            JSONObject link = new JSONObject();
+            link.put("rel", "next");
+            link.put("href", "http://nova:8774/v2/tenant/servers/detail?limit=1000&marker=a291599e-6de2-41a6-88df-c443ddcef70d");
+            final JSONObject firstPage = new JSONObject();
+            firstPage.put("servers_links", new JSONArray().put(link));
+            final Answer<JSONObject> servers = streamElements(json, "servers");
+
+            when(method.getServers(anyString(), anyBoolean(), anyString(), anyString(), any(AbstractMethod.ElementHandler.class))).thenAnswer(new Answer<JSONObject>() {
+                private int page = 0;
+
+                @Override
+                public JSONObject answer(InvocationOnMock invocation) throws Throwable {
+                    servers.answer(invocation);
+                    return (page++ == 0 ? firstPage : new JSONObject());
+                }
+            });
+            when(server.toStatus(any(JSONObject.class))).thenCallRealMethod();
+            when(server.listVirtualMachineStatus()).thenCallRealMethod();
+            server.listVirtualMachineStatus();
+
+            ArgumentCaptor<String> queryArg = ArgumentCaptor.forClass(String.class);
+            verify(method, times(2)).getServers(anyString(), anyBoolean(), queryArg.capture(), anyString(), any(AbstractMethod.ElementHandler.class));
+            assertEquals("First page query is not as expected", "?limit=" + NovaServer.SERVER_PAGE_SIZE, queryArg.getAllValues().get(0));
+            assertEquals("Next page query is not as expected", "?limit=1000&marker=a291599e-6de2-41a6-88df-c443ddcef70d", queryArg.getAllValues().get(1));
+            verify(server, times(2 * json.getJSONArray("servers").length())).toStatus(any(JSONObject.class));
+        }
+        catch( JSONException | InternalException | CloudException e ) {
+            e.printStackTrace();
+            fail("Test failed " + e.getMessage());
+        }
+    }
+
     @Test
     public void pauseTest() {
         NovaMethod method = mock(NovaMethod.class);
         NovaServer server = mock(NovaServer.class);
-        VirtualMachine virtualMachine = mock(VirtualMachine.class);
         VirtualMachineCapabilities capabilities = mock(VirtualMachineCapabilities.class);
 
         final String testVmId = "testVmId";
         try {
             when(server.getMethod()).thenReturn(method);
-            when(server.getVirtualMachine(testVmId)).thenReturn(virtualMachine);
             when(server.getCapabilities()).thenReturn(capabilities);
             when(capabilities.supportsPause()).thenReturn(true);
             when(method.postServers(anyString(), anyString(), any(JSONObject.class), anyBoolean())).thenReturn(null);
@@ -398,6 +611,33 @@ public class NovaServerTest extends OpenStackTest {
             ArgumentCaptor<String> vmIdArg = ArgumentCaptor.forClass(String.class);
             verify(method).postServers(anyString(), vmIdArg.capture(), any(JSONObject.class), anyBoolean());
             assertEquals("VM ID passed to the method is not as expected", testVmId, vmIdArg.getValue());
+            verify(server, never()).getVirtualMachine(anyString());
+        }
+        catch( InternalException | CloudException e) {
+            e.printStackTrace();
+            fail("Test failed " + e.getMessage());
+        }
+    }
+
+    @Test
+    public void pauseMissingVmTest() {
+        NovaMethod method = mock(NovaMethod.class);
+        NovaServer server = mock(NovaServer.class);
+        VirtualMachineCapabilities capabilities = mock(VirtualMachineCapabilities.class);
+
+        final String testVmId = "testVmId";
+        try {
+            when(server.getMethod()).thenReturn(method);
+            when(server.getCapabilities()).thenReturn(capabilities);
+            when(capabilities.supportsPause()).thenReturn(true);
+            when(method.postServers(anyString(), anyString(), any(JSONObject.class), anyBoolean())).thenThrow(new NovaException(CloudErrorType.GENERAL, 404, "itemNotFound", "Instance could not be found"));
+            Mockito.doCallRealMethod().when(server).pause(anyString());
+
+            server.pause(testVmId);
+            fail("Pausing a missing VM should fail");
+        }
+        catch( ResourceNotFoundException expected ) {
+            // expected
         }
         catch( InternalException | CloudException e) {
             e.printStackTrace();
@@ -460,13 +700,11 @@ public class NovaServerTest extends OpenStackTest {
     public void resumeTest() {
         NovaMethod method = mock(NovaMethod.class);
         NovaServer server = mock(NovaServer.class);
-        VirtualMachine virtualMachine = mock(VirtualMachine.class);
         VirtualMachineCapabilities capabilities = mock(VirtualMachineCapabilities.class);
 
         final String testVmId = "testVmId";
         try {
             when(server.getMethod()).thenReturn(method);
-            when(server.getVirtualMachine(testVmId)).thenReturn(virtualMachine);
             when(server.getCapabilities()).thenReturn(capabilities);
             when(capabilities.supportsResume()).thenReturn(true);
             when(method.postServers(anyString(), anyString(), any(JSONObject.class), anyBoolean())).thenReturn(null);
@@ -476,6 +714,7 @@ public class NovaServerTest extends OpenStackTest {
             ArgumentCaptor<String> vmIdArg = ArgumentCaptor.forClass(String.class);
             verify(method).postServers(anyString(), vmIdArg.capture(), any(JSONObject.class), anyBoolean());
             assertEquals("VM ID passed to the method is not as expected", testVmId, vmIdArg.getValue());
+            verify(server, never()).getVirtualMachine(anyString());
         }
         catch( InternalException | CloudException e) {
             e.printStackTrace();
@@ -487,12 +726,10 @@ public class NovaServerTest extends OpenStackTest {
     public void startTest() {
         NovaMethod method = mock(NovaMethod.class);
         NovaServer server = mock(NovaServer.class);
-        VirtualMachine virtualMachine = mock(VirtualMachine.class);
         VirtualMachineCapabilities capabilities = mock(VirtualMachineCapabilities.class);
         final String testVmId = "testVmId";
         try {
             when(server.getMethod()).thenReturn(method);
-            when(server.getVirtualMachine(testVmId)).thenReturn(virtualMachine);
             when(server.getCapabilities()).thenReturn(capabilities);
             when(capabilities.supportsStart()).thenReturn(true);
             when(method.postServers(anyString(), anyString(), any(JSONObject.class), anyBoolean())).thenReturn(null);
@@ -503,6 +740,7 @@ public class NovaServerTest extends OpenStackTest {
             ArgumentCaptor<String> vmIdArg = ArgumentCaptor.forClass(String.class);
             verify(method).postServers(anyString(), vmIdArg.capture(), any(JSONObject.class), anyBoolean());
             assertEquals("VM Id passed to the method is not as expected", testVmId, vmIdArg.getValue());
+            verify(server, never()).getVirtualMachine(anyString());
         }
         catch( InternalException | CloudException e) {
             e.printStackTrace();
@@ -514,14 +752,12 @@ public class NovaServerTest extends OpenStackTest {
     public void stopTest() {
         NovaMethod method = mock(NovaMethod.class);
         NovaServer server = mock(NovaServer.class);
-        VirtualMachine virtualMachine = mock(VirtualMachine.class);
         VirtualMachineCapabilities capabilities = mock(VirtualMachineCapabilities.class);
 
         final String testVmId = "testVmId";
 
         try {
             when(server.getMethod()).thenReturn(method);
-            when(server.getVirtualMachine(testVmId)).thenReturn(virtualMachine);
             when(server.getCapabilities()).thenReturn(capabilities);
             when(capabilities.supportsStop()).thenReturn(true);
             when(method.postServers(anyString(), anyString(), any(JSONObject.class), anyBoolean())).thenReturn(null);
@@ -531,6 +767,7 @@ public class NovaServerTest extends OpenStackTest {
             ArgumentCaptor<String> vmIdArg = ArgumentCaptor.forClass(String.class);
             verify(method).postServers(anyString(), vmIdArg.capture(), any(JSONObject.class), anyBoolean());
             assertEquals("VM Id passed to the method is not as expected", testVmId, vmIdArg.getValue());
+            verify(server, never()).getVirtualMachine(anyString());
         }
         catch( InternalException | CloudException e) {
             e.printStackTrace();
@@ -542,13 +779,11 @@ public class NovaServerTest extends OpenStackTest {
     public void suspendTest() {
         NovaMethod method = mock(NovaMethod.class);
         NovaServer server = mock(NovaServer.class);
-        VirtualMachine virtualMachine = mock(VirtualMachine.class);
         VirtualMachineCapabilities capabilities = mock(VirtualMachineCapabilities.class);
 
         final String testVmId = "testVmId";
         try {
             when(server.getMethod()).thenReturn(method);
-            when(server.getVirtualMachine(testVmId)).thenReturn(virtualMachine);
             when(server.getCapabilities()).thenReturn(capabilities);
             when(capabilities.supportsSuspend()).thenReturn(true);
             when(method.postServers(anyString(), anyString(), any(JSONObject.class), anyBoolean())).thenReturn(null);
@@ -558,6 +793,7 @@ public class NovaServerTest extends OpenStackTest {
             ArgumentCaptor<String> vmIdArg = ArgumentCaptor.forClass(String.class);
             verify(method).postServers(anyString(), vmIdArg.capture(), any(JSONObject.class), anyBoolean());
             assertEquals("VM Id passed to the method is not as expected", testVmId, vmIdArg.getValue());
+            verify(server, never()).getVirtualMachine(anyString());
         }
         catch( InternalException | CloudException e) {
             e.printStackTrace();
@@ -569,13 +805,11 @@ public class NovaServerTest extends OpenStackTest {
     public void unpauseTest() {
         NovaMethod method = mock(NovaMethod.class);
         NovaServer server = mock(NovaServer.class);
-        VirtualMachine virtualMachine = mock(VirtualMachine.class);
         VirtualMachineCapabilities capabilities = mock(VirtualMachineCapabilities.class);
 
         final String testVmId = "testVmId";
         try {
             when(server.getMethod()).thenReturn(method);
-            when(server.getVirtualMachine(testVmId)).thenReturn(virtualMachine);
             when(server.getCapabilities()).thenReturn(capabilities);
             when(capabilities.supportsUnPause()).thenReturn(true);
             when(method.postServers(anyString(), anyString(), any(JSONObject.class), anyBoolean())).thenReturn(null);
@@ -587,6 +821,7 @@ public class NovaServerTest extends OpenStackTest {
             ArgumentCaptor<String> vmIdArg = ArgumentCaptor.forClass(String.class);
             verify(method).postServers(anyString(), vmIdArg.capture(), any(JSONObject.class), anyBoolean());
             assertEquals("VM ID passed to the method is not as expected", testVmId, vmIdArg.getValue());
+            verify(server, never()).getVirtualMachine(anyString());
         }
         catch( InternalException | CloudException e) {
             e.printStackTrace();
@@ -692,6 +927,7 @@ public class NovaServerTest extends OpenStackTest {
             when(server.listFirewalls(anyString(), any(JSONObject.class))).thenReturn(Collections.EMPTY_LIST);
 
             when(server.toVirtualMachine(any(JSONObject.class), anyCollection(), anyCollection(), anyCollection())).thenCallRealMethod();
+            when(server.toVirtualMachine(any(JSONObject.class), any(ServerIndex.class))).thenCallRealMethod();
             VirtualMachine vm = server.toVirtualMachine(json.getJSONObject("server"), ipV4, Collections.EMPTY_LIST, vlans);
             assertNotNull("Returned vm should not be null", vm);
             assertEquals("Architecture is not as expected", Architecture.I64, vm.getArchitecture());
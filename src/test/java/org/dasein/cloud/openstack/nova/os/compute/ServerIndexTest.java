@@ -0,0 +1,128 @@
+package org.dasein.cloud.openstack.nova.os.compute;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.dasein.cloud.network.IPVersion;
+import org.dasein.cloud.network.IpAddress;
+import org.dasein.cloud.network.RawAddress;
+import org.dasein.cloud.network.VLAN;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ServerIndexTest {
+
+    private IpAddress ip(String id, String address, IPVersion version, String serverId) {
+        IpAddress ip = new IpAddress();
+
+        ip.setIpAddressId(id);
+        ip.setAddress(address);
+        ip.setVersion(version);
+        ip.setServerId(serverId);
+        return ip;
+    }
+
+    private VLAN vlan(String id, String name) {
+        VLAN vlan = new VLAN();
+
+        vlan.setProviderVlanId(id);
+        vlan.setName(name);
+        return vlan;
+    }
+
+    @Test
+    public void findsFloatingIps() {
+        ServerIndex index = new ServerIndex(
+                Arrays.asList(ip("fip1", "172.24.4.10", IPVersion.IPV4, null), ip("fip2", "172.24.4.11", IPVersion.IPV4, "vm2")),
+                Arrays.asList(ip("fip3", "2001:db8::10", IPVersion.IPV6, "vm2"), ip("fip4", "2001:db8::11", IPVersion.IPV6, "vm3")),
+                Collections.<VLAN>emptyList(), null);
+
+        assertEquals("IPv4 address lookup does not match", "fip1", index.findByAddress(new RawAddress("172.24.4.10", IPVersion.IPV4)).getProviderIpAddressId());
+        assertEquals("IPv6 address lookup does not match", "fip3", index.findByAddress(new RawAddress("2001:db8::10", IPVersion.IPV6)).getProviderIpAddressId());
+        assertNull("Address families should not be mixed", index.findByAddress(new RawAddress("172.24.4.10", IPVersion.IPV6)));
+        assertEquals("IPv4 should be preferred for a server", "fip2", index.findByServer("vm2").getProviderIpAddressId());
+        assertEquals("IPv6 should be used when there is no IPv4", "fip4", index.findByServer("vm3").getProviderIpAddressId());
+        assertNull("Unassigned server should not match", index.findByServer("vm1"));
+    }
+
+    @Test
+    public void firstNetworkWithNameWins() {
+        ServerIndex index = new ServerIndex(Collections.<IpAddress>emptyList(), Collections.<IpAddress>emptyList(),
+                Arrays.asList(vlan("net1", "private"), vlan("net2", "private"), vlan("net3", null)), null);
+
+        assertEquals("First network with the name should match", "net1", index.findNetwork("private").getProviderVlanId());
+        assertNull("Unknown network should not match", index.findNetwork("public"));
+        assertNull("Subnets should be fetched on first use", index.getSubnets());
+    }
+
+    /**
+     * Resolves the floating IP of each server the way toVirtualMachine did before the index: a scan of the pool by
+     * public address, then a scan by server ID.
+     */
+    private String[] scan(List<RawAddress> publicAddresses, List<IpAddress> pool) {
+        String[] ids = new String[publicAddresses.size()];
+
+        for( int i=0; i<ids.length; i++ ) {
+            String serverId = "vm" + i;
+
+            for( IpAddress a : pool ) {
+                if( a.getRawAddress().getIpAddress().equals(publicAddresses.get(i).getIpAddress()) ) {
+                    ids[i] = a.getProviderIpAddressId();
+                    break;
+                }
+            }
+            if( ids[i] == null ) {
+                for( IpAddress a : pool ) {
+                    if( serverId.equals(a.getServerId()) ) {
+                        ids[i] = a.getProviderIpAddressId();
+                        break;
+                    }
+                }
+            }
+        }
+        return ids;
+    }
+
+    private String[] lookUp(List<RawAddress> publicAddresses, List<IpAddress> pool) {
+        ServerIndex index = new ServerIndex(pool, Collections.<IpAddress>emptyList(), Collections.<VLAN>emptyList(), null);
+        String[] ids = new String[publicAddresses.size()];
+
+        for( int i=0; i<ids.length; i++ ) {
+            IpAddress a = index.findByAddress(publicAddresses.get(i));
+
+            if( a == null ) {
+                a = index.findByServer("vm" + i);
+            }
+            ids[i] = (a == null ? null : a.getProviderIpAddressId());
+        }
+        return ids;
+    }
+
+    /**
+     * Resolves the floating IPs of 5,000 servers against a pool of 5,000 floating IPs, half found by public address
+     * and half by server ID, with the index and with the scans it replaced.
+     */
+    @Test
+    public void indexResolvesSameFloatingIpsAsScans() {
+        int count = 5000;
+        List<IpAddress> pool = new ArrayList<IpAddress>();
+        List<RawAddress> publicAddresses = new ArrayList<RawAddress>();
+
+        for( int i=0; i<count; i++ ) {
+            String address = "172.16." + (i / 256) + "." + (i % 256);
+
+            pool.add(ip("fip" + i, address, IPVersion.IPV4, (i % 2 == 0 ? null : "vm" + i)));
+            publicAddresses.add(new RawAddress(i % 2 == 0 ? address : "10.0." + (i / 256) + "." + (i % 256), IPVersion.IPV4));
+        }
+        String[] indexed = lookUp(publicAddresses, pool);
+
+        assertTrue("Index and scans should resolve the same floating IPs", Arrays.equals(scan(publicAddresses, pool), indexed));
+        assertEquals("Server found by address does not match", "fip0", indexed[0]);
+        assertEquals("Server found by ID does not match", "fip" + (count - 1), indexed[count - 1]);
+    }
+}
@@ -0,0 +1,72 @@
+package org.dasein.cloud.openstack.nova.os.compute;
+
+import java.util.Arrays;
+
+import org.dasein.cloud.network.Subnet;
+import org.dasein.cloud.network.SubnetState;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class SubnetIndexTest {
+
+    private Subnet subnet(String vlanId, String subnetId, String cidr) {
+        return Subnet.getInstance("tenant", "RegionOne", vlanId, subnetId, SubnetState.AVAILABLE, subnetId, subnetId, cidr);
+    }
+
+    @Test
+    public void findsMostSpecificSubnet() {
+        SubnetIndex index = new SubnetIndex(Arrays.asList(
+                subnet("net1", "wide", "10.0.0.0/16"),
+                subnet("net1", "narrow", "10.0.1.0/24"),
+                subnet("net2", "other", "10.0.1.0/24")));
+
+        assertEquals("Subnet count does not match", 3, index.size());
+        assertEquals("Longest prefix should win", "narrow", index.find("net1", "10.0.1.15"));
+        assertEquals("Enclosing subnet should match", "wide", index.find("net1", "10.0.2.15"));
+        assertEquals("Subnet of the address's own network should match", "other", index.find("net2", "10.0.1.15"));
+        assertNull("Subnets of another network should not match", index.find("net2", "10.0.2.15"));
+        assertNull("Address outside every subnet should not match", index.find("net1", "192.168.0.1"));
+        assertNull("Unknown network should not match", index.find("net3", "10.0.1.15"));
+    }
+
+    @Test
+    public void indexesIpv6Subnets() {
+        SubnetIndex index = new SubnetIndex(Arrays.asList(
+                subnet("net1", "v4", "10.0.0.0/24"),
+                subnet("net1", "v6", "fd00:1234::/64")));
+
+        assertEquals("IPv6 address should match its subnet", "v6", index.find("net1", "fd00:1234::f816:3eff:fe12:3456"));
+        assertNull("IPv6 address outside the subnet should not match", index.find("net1", "fd00:5678::1"));
+        assertEquals("IPv4 address should match its subnet", "v4", index.find("net1", "10.0.0.4"));
+        assertEquals("IPv4-mapped address should match the IPv4 subnet", "v4", index.find("net1", "::ffff:10.0.0.4"));
+    }
+
+    @Test
+    public void parsesAddressesByHand() {
+        assertArrayEquals("Compressed IPv6 address does not match", new byte[] { (byte)0xfd, 0, 0x12, 0x34, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 1 }, SubnetIndex.toBytes("fd00:1234::1"));
+        assertArrayEquals("Full IPv6 address does not match", new byte[] { 0, 1, 0, 2, 0, 3, 0, 4, 0, 5, 0, 6, 0, 7, 0, 8 }, SubnetIndex.toBytes("1:2:3:4:5:6:7:8"));
+        assertArrayEquals("Unspecified IPv6 address does not match", new byte[16], SubnetIndex.toBytes("::"));
+        assertArrayEquals("Zone should be ignored", SubnetIndex.toBytes("fe80::1"), SubnetIndex.toBytes("fe80::1%eth0"));
+        assertNull("Non-hex groups should not be parsed", SubnetIndex.toBytes("zz:1"));
+        assertNull("Host names with colons should not be parsed", SubnetIndex.toBytes("example.com:80"));
+        assertNull("Repeated gaps should not be parsed", SubnetIndex.toBytes("1::2::3"));
+        assertNull("Groups longer than four digits should not be parsed", SubnetIndex.toBytes("12345::1"));
+        assertNull("Short IPv6 address without a gap should not be parsed", SubnetIndex.toBytes("1:2:3"));
+        assertNull("Signed octets should not be parsed", SubnetIndex.toBytes("10.+1.0.1"));
+    }
+
+    @Test
+    public void skipsInvalidCidrs() {
+        SubnetIndex index = new SubnetIndex(Arrays.asList(
+                subnet("net1", "bad", "10.0.0/24"),
+                subnet("net1", "long", "10.0.0.0/33"),
+                subnet("net1", "good", "10.0.0.0/8")));
+
+        assertEquals("Invalid CIDRs should be skipped", 1, index.size());
+        assertEquals("Valid subnet should still match", "good", index.find("net1", "10.1.2.3"));
+        assertNull("Host names should never be resolved", index.find("net1", "example.com"));
+    }
+}
@@ -123,6 +123,7 @@ public class QuantumTest extends OpenStackTest {
             when(quantum.getVlan(anyString())).thenReturn(vlan);
             when(method.getNetworks(anyString(), anyString(), anyBoolean())).thenReturn(json);
             when(quantum.listSubnets(anyString())).thenCallRealMethod();
+            when(quantum.listAllSubnets()).thenCallRealMethod();
             when(quantum.toSubnet(( JSONObject ) anyObject(), ( VLAN ) anyObject())).thenCallRealMethod();
 
             Iterable<Subnet> res = quantum.listSubnets("5761fd9c-30b9-4064-a42d-1b181decaa8e");